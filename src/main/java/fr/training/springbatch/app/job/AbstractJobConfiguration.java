@@ -4,21 +4,39 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.Step;
 import org.springframework.batch.core.converter.JobParametersConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.task.TaskExecutor;
 
 import fr.training.springbatch.converter.AugmentedJobParametersConverter;
+import fr.training.springbatch.tools.executor.ManagedTaskExecutor;
 import fr.training.springbatch.tools.listener.ItemCountListener;
 import fr.training.springbatch.tools.listener.JobReportListener;
+import fr.training.springbatch.tools.partition.WorkQueuePartitionHandler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 
 /**
  * Abstract JobConfiguration class to factorize factories declarations and others beans used in all jobs.
  */
 public abstract class AbstractJobConfiguration {
 
+    /**
+     * Partition worker threads (0 = the number of available processors).
+     */
+    @Value("${application.partition.thread-count:0}")
+    private int partitionThreadCount;
+
+    @Value("${application.partition.partitions-per-thread:10}")
+    private int partitionsPerThread;
+
     public AbstractJobConfiguration() {
     }
 
@@ -63,4 +81,39 @@ public abstract class AbstractJobConfiguration {
     protected JobParametersConverter augmentedJobParametersConverter() {
         return new AugmentedJobParametersConverter();
     }
-}
\ No newline at end of file
+
+    /**
+     * Executor shared by all the parallel steps (partitions, splits, multi-threaded steps)
+     */
+    @Bean
+    protected ManagedTaskExecutor batchTaskExecutor(@Value("${application.executor.mode:platform}") final String mode,
+            @Value("${application.executor.pool-size:0}") final int poolSize, @Value("${application.executor.queue-capacity:0}") final int queueCapacity,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
+        final ManagedTaskExecutor taskExecutor = new ManagedTaskExecutor();
+        // the Boot registry when there is one (actuator), the global registry of Spring Batch otherwise
+        taskExecutor.setMeterRegistry(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        taskExecutor.setMode(ManagedTaskExecutor.Mode.valueOf(mode.toUpperCase()));
+        if (poolSize > 0) {
+            taskExecutor.setPoolSize(poolSize);
+        }
+        if (queueCapacity > 0) {
+            taskExecutor.setQueueCapacity(queueCapacity);
+        }
+        return taskExecutor;
+    }
+
+    /**
+     * Many small partitions pulled by a fixed number of workers, so that a slow partition doesn't hold up the idle workers
+     * (<code>application.partition.thread-count</code> and <code>application.partition.partitions-per-thread</code> properties).
+     */
+    protected WorkQueuePartitionHandler workQueuePartitionHandler(final Step workerStep, final TaskExecutor taskExecutor) {
+        final WorkQueuePartitionHandler partitionHandler = new WorkQueuePartitionHandler();
+        partitionHandler.setStep(workerStep);
+        partitionHandler.setTaskExecutor(taskExecutor);
+        if (partitionThreadCount > 0) {
+            partitionHandler.setThreadCount(partitionThreadCount);
+        }
+        partitionHandler.setPartitionsPerThread(partitionsPerThread);
+        return partitionHandler;
+    }
+}
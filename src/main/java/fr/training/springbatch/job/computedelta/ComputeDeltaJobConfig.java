@@ -36,10 +36,12 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.jdbc.core.DataClassRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import fr.training.springbatch.app.dto.Stock;
 import fr.training.springbatch.app.job.AbstractJobConfiguration;
+import fr.training.springbatch.tools.hash.XxHash64;
 import fr.training.springbatch.tools.tasklet.SqlExecutingTasklet;
 import fr.training.springbatch.tools.validator.JobParameterRequirementValidator;
 import fr.training.springbatch.tools.writer.ConsoleItemWriter;
@@ -51,6 +53,9 @@ import fr.training.springbatch.tools.writer.NoOpWriter;
  * And that you have to update your system with the added or deleted data, this is exactly what this job does, it compute the delta between the file received at
  * day N-1 with the file received at day N (usually used in companies that use files to transmit data).
  *
+ * The modified data are detected with a content hash of the non key columns, stored with each row : the N-1 hashes are kept in the N-1 table, so the rows are
+ * compared on a single column whatever the number of columns of the records.
+ *
  * @author Desprez
  */
 @Configuration
@@ -75,7 +80,7 @@ public class ComputeDeltaJobConfig extends AbstractJobConfiguration {
      */
     @Bean
     Job computeDeltaJob(final Step createTable, final Step loadTodayStock, final Step processAddedItems, final Step processRemovedItems,
-            final JobRepository jobRepository, final Step swapTables) {
+            final Step processModifiedItems, final JobRepository jobRepository, final Step swapTables) {
 
         return new JobBuilder(COMPUTE_DELTA_JOB, jobRepository)
                 .incrementer(new RunIdIncrementer()) // job can be launched as many times as desired
@@ -85,6 +90,7 @@ public class ComputeDeltaJobConfig extends AbstractJobConfiguration {
                 .next(loadTodayStock) // load stock N file to N table
                 .next(processAddedItems) // process items present in N table but not in N-1 table = added
                 .next(processRemovedItems) // process items present in N-1 table but not in N table = removed
+                .next(processModifiedItems) // process items present in both tables with another content hash = modified
                 .next(swapTables) // drop N-1 table and rename N table to N-1 table
                 .build();
     }
@@ -95,7 +101,7 @@ public class ComputeDeltaJobConfig extends AbstractJobConfiguration {
     @Bean
     Step createTable(final JobRepository jobRepository, final PlatformTransactionManager transactionManager) {
 
-        final String createSql = "CREATE TABLE today_stock(number BIGINT NOT NULL, label VARCHAR(50), PRIMARY KEY (number));";
+        final String createSql = "CREATE TABLE today_stock(number BIGINT NOT NULL, label VARCHAR(50), content_hash BIGINT, PRIMARY KEY (number));";
 
         return new StepBuilder("swap-step", jobRepository)
                 .tasklet(new SqlExecutingTasklet(jdbcTemplate, createSql), transactionManager) //
@@ -138,15 +144,17 @@ public class ComputeDeltaJobConfig extends AbstractJobConfiguration {
     }
 
     /**
-     * Write lines of the stockFile into the <b>today_stock</b> table.
+     * Write lines of the stockFile into the <b>today_stock</b> table, with the content hash of the non key columns.
      */
     @Bean
     @DependsOnDatabaseInitialization
     JdbcBatchItemWriter<Stock> jdbcWriter() {
         return new JdbcBatchItemWriterBuilder<Stock>()
                 .dataSource(dataSource)
-                .sql("INSERT INTO today_stock (number, label) VALUES (:number, :label)")
-                .beanMapped()
+                .sql("INSERT INTO today_stock (number, label, content_hash) VALUES (:number, :label, :contentHash)")
+                .itemSqlParameterSourceProvider(stock -> new MapSqlParameterSource("number", stock.number()) //
+                        .addValue("label", stock.label()) //
+                        .addValue("contentHash", XxHash64.hashFields(stock.label())))
                 .build();
     }
 
@@ -176,6 +184,19 @@ public class ComputeDeltaJobConfig extends AbstractJobConfiguration {
                 .build();
     }
 
+    /**
+     * Process item present in N table and in N-1 table with another content hash (= modified).
+     */
+    @Bean
+    Step processModifiedItems(final JobRepository jobRepository, final PlatformTransactionManager transactionManager,
+            final JdbcPagingItemReader<Stock> jdbcModifiedItemReader) {
+        return new StepBuilder("process-modified-step", jobRepository)
+                .<Stock, Stock> chunk(chunkSize, transactionManager)
+                .reader(jdbcModifiedItemReader)
+                .writer(new CompositeItemWriterBuilder<Stock>().delegates(modifiedWriter(), writer2()).build()) //
+                .build();
+    }
+
     @Bean
     @DependsOnDatabaseInitialization
     JdbcPagingItemReader<Stock> jdbcAddedItemReader(final PagingQueryProvider addedItemsQueryProvider) {
@@ -231,6 +252,35 @@ public class ComputeDeltaJobConfig extends AbstractJobConfiguration {
         return provider.getObject();
     }
 
+    @Bean
+    @DependsOnDatabaseInitialization
+    JdbcPagingItemReader<Stock> jdbcModifiedItemReader(final PagingQueryProvider modifiedItemsQueryProvider) {
+
+        return new JdbcPagingItemReaderBuilder<Stock>()
+                .name("jdbcModifiedItemReader")
+                .dataSource(dataSource)
+                .pageSize(100)
+                .queryProvider(modifiedItemsQueryProvider)
+                .rowMapper(new DataClassRowMapper<>(Stock.class))
+                .build();
+    }
+
+    @Bean
+    @DependsOnDatabaseInitialization
+    PagingQueryProvider modifiedItemsQueryProvider() throws Exception {
+        final SqlPagingQueryProviderFactoryBean provider = new SqlPagingQueryProviderFactoryBean();
+
+        provider.setDataSource(dataSource);
+        provider.setSelectClause("SELECT number, label");
+        provider.setFromClause("FROM today_stock");
+        // only the hashes are compared, not the columns : a row stored before the hashes (null hash) counts as modified
+        provider.setWhereClause("WHERE EXISTS (SELECT 1 FROM yesterday_stock WHERE yesterday_stock.number = today_stock.number" //
+                + " AND (yesterday_stock.content_hash IS NULL OR yesterday_stock.content_hash <> today_stock.content_hash))");
+        provider.setSortKeys(Collections.singletonMap("number", Order.ASCENDING));
+
+        return provider.getObject();
+    }
+
     /**
      * Fake writer to simulate writing added items.
      */
@@ -245,6 +295,13 @@ public class ComputeDeltaJobConfig extends AbstractJobConfiguration {
         return new ConsoleItemWriter<Stock>("removed: ");
     }
 
+    /**
+     * Fake writer to simulate writing modified items.
+     */
+    private ItemWriter<Stock> modifiedWriter() {
+        return new ConsoleItemWriter<Stock>("modified: ");
+    }
+
     /**
      * Other writer to show the {@link CompositeItemWriterBuilder} usage.
      */
@@ -0,0 +1,123 @@
+package fr.training.springbatch.job.computedelta;
+
+import static fr.training.springbatch.tools.validator.ParameterRequirement.fileExist;
+import static fr.training.springbatch.tools.validator.ParameterRequirement.required;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import fr.training.springbatch.app.dto.Stock;
+import fr.training.springbatch.app.job.AbstractJobConfiguration;
+import fr.training.springbatch.tools.hash.XxHash64;
+import fr.training.springbatch.tools.synchro.Delta;
+import fr.training.springbatch.tools.synchro.DeltaItemWriter;
+import fr.training.springbatch.tools.synchro.SortedDeltaItemReader;
+import fr.training.springbatch.tools.validator.AdditiveJobParametersValidatorBuilder;
+import fr.training.springbatch.tools.validator.JobParameterRequirementValidator;
+
+/**
+ * <b>Pattern #16 (file to file)</b> Same delta as the {@link ComputeDeltaJobConfig}, but computed in a single merge pass on the files received at day N-1 and
+ * at day N, <b>both sorted on the stock number</b> : no database load, no anti-join queries, no table swap.
+ *
+ * The stocks whose label changed are detected by comparing a content hash of the non key fields. The added, removed, modified and unchanged stocks are written
+ * to 4 files in the output path.
+ *
+ * @author Desprez
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.batch.job.names", havingValue = ComputeFileDeltaJobConfig.COMPUTE_FILE_DELTA_JOB)
+public class ComputeFileDeltaJobConfig extends AbstractJobConfiguration {
+
+    protected static final String COMPUTE_FILE_DELTA_JOB = "compute-file-delta-job";
+
+    @Value("${application.compute-delta-load-step.chunksize:10}")
+    private int chunkSize;
+
+    @Bean
+    Job computeFileDeltaJob(final Step computeDeltaStep, final JobRepository jobRepository) {
+
+        return new JobBuilder(COMPUTE_FILE_DELTA_JOB, jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .validator(new AdditiveJobParametersValidatorBuilder()
+                        .addValidator(new JobParameterRequirementValidator("yesterday-stock-file", required().and(fileExist())))
+                        .addValidator(new JobParameterRequirementValidator("today-stock-file", required().and(fileExist())))
+                        .addValidator(new JobParameterRequirementValidator("output-path", required()))
+                        .build())
+                .listener(reportListener())
+                .start(computeDeltaStep)
+                .build();
+    }
+
+    @Bean
+    Step computeDeltaStep(final JobRepository jobRepository, final PlatformTransactionManager transactionManager,
+            final SortedDeltaItemReader<Stock, Long> deltaReader, final DeltaItemWriter<Stock> deltaWriter) {
+
+        return new StepBuilder("compute-delta-step", jobRepository)
+                .<Delta<Stock>, Delta<Stock>> chunk(chunkSize, transactionManager)
+                .reader(deltaReader)
+                .writer(deltaWriter)
+                .build();
+    }
+
+    @StepScope // Mandatory for using jobParameters
+    @Bean
+    SortedDeltaItemReader<Stock, Long> deltaReader(@Value("#{jobParameters['yesterday-stock-file']}") final String yesterdayFile,
+            @Value("#{jobParameters['today-stock-file']}") final String todayFile) {
+
+        final SortedDeltaItemReader<Stock, Long> reader = new SortedDeltaItemReader<>();
+        reader.setPreviousItemReader(stockReader("yesterdayReader", yesterdayFile));
+        reader.setCurrentItemReader(stockReader("todayReader", todayFile));
+        reader.setKeyExtractor(Stock::number);
+        reader.setContentHashFunction(stock -> XxHash64.hashFields(stock.label()));
+        return reader;
+    }
+
+    private FlatFileItemReader<Stock> stockReader(final String name, final String stockFile) {
+        return new FlatFileItemReaderBuilder<Stock>()
+                .name(name)
+                .resource(new FileSystemResource(stockFile))
+                .delimited()
+                .delimiter(";")
+                .names("number", "label")
+                .targetType(Stock.class)
+                .saveState(true)
+                .build();
+    }
+
+    @StepScope // Mandatory for using jobParameters
+    @Bean
+    DeltaItemWriter<Stock> deltaWriter(@Value("#{jobParameters['output-path']}") final String outputPath) {
+        final DeltaItemWriter<Stock> writer = new DeltaItemWriter<>();
+        writer.setAddedItemWriter(stockWriter("addedWriter", outputPath + "added-stock.csv"));
+        writer.setRemovedItemWriter(stockWriter("removedWriter", outputPath + "removed-stock.csv"));
+        writer.setModifiedItemWriter(stockWriter("modifiedWriter", outputPath + "modified-stock.csv"));
+        writer.setUnchangedItemWriter(stockWriter("unchangedWriter", outputPath + "unchanged-stock.csv"));
+        return writer;
+    }
+
+    private FlatFileItemWriter<Stock> stockWriter(final String name, final String outputFile) {
+        return new FlatFileItemWriterBuilder<Stock>()
+                .name(name)
+                .resource(new FileSystemResource(outputFile))
+                .delimited()
+                .delimiter(";")
+                .names("number", "label")
+                .build();
+    }
+
+}
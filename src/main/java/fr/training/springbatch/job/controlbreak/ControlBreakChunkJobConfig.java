@@ -70,12 +70,13 @@ public class ControlBreakChunkJobConfig extends AbstractJobConfiguration {
      *            the injected Transaction {@link SingleItemPeekableItemReader} bean.
      * @param transactionWriter
      *            the injected Transaction {@link ItemWriter}.
-     * @param completionPolicy
+     * @param breakKeyCompletionPolicy
+     *            the injected {@link GroupPackingCompletionPolicyReader} bean, both reader and completion policy.
      * @return a Step Bean
      */
     @Bean
     Step controlBreakChunkStep(final JobRepository jobRepository, final PlatformTransactionManager transactionManager,
-            final ItemPeekingCompletionPolicyReader<Transaction> breakKeyCompletionPolicy, final ItemWriter<Transaction> transactionWriter) {
+            final GroupPackingCompletionPolicyReader<Transaction> breakKeyCompletionPolicy, final ItemWriter<Transaction> transactionWriter) {
 
         return new StepBuilder("controlbreak-step", jobRepository)
                 .<Transaction, Transaction> chunk(breakKeyCompletionPolicy, transactionManager)
@@ -109,11 +110,14 @@ public class ControlBreakChunkJobConfig extends AbstractJobConfiguration {
         };
     }
 
+    /**
+     * Pack whole customer groups in a chunk until the chunk size is reached (one commit for several groups).
+     */
     @Bean
-    ItemPeekingCompletionPolicyReader<Transaction> breakKeyCompletionPolicy(final SingleItemPeekableItemReader<Transaction> controlBreakReader) {
-        final ItemPeekingCompletionPolicyReader<Transaction> policy = new ItemPeekingCompletionPolicyReader<>();
+    GroupPackingCompletionPolicyReader<Transaction> breakKeyCompletionPolicy(final SingleItemPeekableItemReader<Transaction> controlBreakReader) {
+        final GroupPackingCompletionPolicyReader<Transaction> policy = new GroupPackingCompletionPolicyReader<>(chunkSize);
         policy.setDelegate(controlBreakReader);
-        policy.setBreakKeyStrategy((item1, item2) -> !item1.customerNumber().equals(item1.customerNumber()));
+        policy.setBreakKeyStrategy((item1, item2) -> !item1.customerNumber().equals(item2.customerNumber()));
         return policy;
     }
 
@@ -56,6 +56,12 @@ public class ControlBreakJobConfig extends AbstractJobConfiguration {
     @Value("${application.controlbreak-step.chunksize:10}")
     private int chunkSize;
 
+    /**
+     * Transactions of a customer kept in memory, the next ones are spilled to a temporary file.
+     */
+    @Value("${application.controlbreak-step.max-in-memory-items:100000}")
+    private int maxInMemoryItems;
+
     @Bean
     Job controlBreakJob(final Step controlBreakStep, final JobRepository jobRepository) {
         return new JobBuilder(CONTROLBREAK_JOB, jobRepository)
@@ -95,6 +101,7 @@ public class ControlBreakJobConfig extends AbstractJobConfiguration {
         final ItemListPeekableItemReader<Transaction> groupReader = new ItemListPeekableItemReader<>();
         groupReader.setDelegate(transactionReader);
         groupReader.setBreakKeyStrategy((item1, item2) -> !item1.customerNumber().equals(item2.customerNumber()));
+        groupReader.setMaxInMemoryItems(maxInMemoryItems);
         return groupReader;
     }
 
@@ -0,0 +1,48 @@
+package fr.training.springbatch.job.controlbreak;
+
+import org.springframework.batch.repeat.RepeatContext;
+
+/**
+ * Like the {@link ItemPeekingCompletionPolicyReader}, a chunk never splits a group, but whole groups are packed in the same chunk until the chunk size is
+ * reached : the chunk ends at the first key break after <code>chunkSize</code> items (so a chunk may exceed the chunk size by at most one group).
+ *
+ * With small groups, this saves one transaction commit and one job repository update per group, while the writer still receives whole groups.
+ *
+ * @param <T>
+ *            The class of the items
+ *
+ * @author Desprez
+ */
+public class GroupPackingCompletionPolicyReader<T> extends ItemPeekingCompletionPolicyReader<T> {
+
+    public GroupPackingCompletionPolicyReader() {
+        super();
+    }
+
+    /**
+     * @param chunkSize
+     *            the minimum number of items of a chunk (before the next key break).
+     */
+    public GroupPackingCompletionPolicyReader(final int chunkSize) {
+        setChunkSize(chunkSize);
+    }
+
+    @Override
+    public RepeatContext start(final RepeatContext context) {
+        return new GroupPackingTerminationContext(context);
+    }
+
+    protected class GroupPackingTerminationContext extends SimpleTerminationContext {
+
+        public GroupPackingTerminationContext(final RepeatContext context) {
+            super(context);
+        }
+
+        @Override
+        public boolean isComplete() {
+            // peek only once the chunk size is reached
+            return super.isComplete() && isKeyBreak();
+        }
+    }
+
+}
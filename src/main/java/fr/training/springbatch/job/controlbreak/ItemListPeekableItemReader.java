@@ -1,5 +1,8 @@
 package fr.training.springbatch.job.controlbreak;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,6 +19,10 @@ import org.springframework.batch.item.support.SingleItemPeekableItemReader;
  *
  * Group membership must be defined using an injected {@link BreakKeyStrategy} that encapsulate the logic.
  *
+ * A group larger than <code>maxInMemoryItems</code> keeps only its first items in memory, the others are written to a temporary file and the list returned
+ * reads them back lazily at each iteration (read-only list, the items must be {@link java.io.Serializable}). The temporary files are deleted at the end of
+ * the chunk (update) or when the reader is closed.
+ *
  * @param <T>
  *            The class of the items to be processed
  *
@@ -27,6 +34,15 @@ public class ItemListPeekableItemReader<T> implements ItemStreamReader<List<T>>
 
     private BreakKeyStrategy<T> breakKeyStrategy;
 
+    private int maxInMemoryItems = Integer.MAX_VALUE;
+
+    private String tempDirectory = System.getProperty("java.io.tmpdir");
+
+    /**
+     * Groups spilled to disk since the last update, their files are still read by the processor/writer of the current chunk.
+     */
+    private final List<SpilledItemList<T>> spilledGroups = new ArrayList<>();
+
     @Override
     public List<T> read() throws UnexpectedInputException, ParseException, Exception {
 
@@ -39,17 +55,34 @@ public class ItemListPeekableItemReader<T> implements ItemStreamReader<List<T>>
         }
         records.add(item);
 
-        while (true) {
-            final T possibleSameGroupItem = delegate.peek();
-            if (possibleSameGroupItem == null) {
-                return records;
+        SpilledItemList<T> spilled = null;
+        try {
+            while (true) {
+                final T possibleSameGroupItem = delegate.peek();
+                if (possibleSameGroupItem == null || breakKeyStrategy.isKeyBreak(item, possibleSameGroupItem)) {
+                    if (spilled != null) {
+                        spilled.complete();
+                        return spilled;
+                    }
+                    return records;
+                }
+
+                if (spilled != null) {
+                    spilled.spill(delegate.read());
+                } else if (records.size() < maxInMemoryItems) {
+                    records.add(delegate.read());
+                } else {
+                    spilled = new SpilledItemList<>(records, Files.createTempFile(Paths.get(tempDirectory), "group-", ".tmp"));
+                    spilledGroups.add(spilled);
+                    spilled.spill(delegate.read());
+                }
             }
-
-            if (breakKeyStrategy.isKeyBreak(item, possibleSameGroupItem)) {
-                return records;
-            } else {
-                records.add(delegate.read());
+        } catch (final Exception e) {
+            if (spilled != null) {
+                spilled.delete();
+                spilledGroups.remove(spilled);
             }
+            throw e;
         }
     }
 
@@ -62,8 +95,36 @@ public class ItemListPeekableItemReader<T> implements ItemStreamReader<List<T>>
         this.breakKeyStrategy = breakKeyStrategy;
     }
 
+    /**
+     * @param maxInMemoryItems
+     *            the number of items of a group kept in memory, the next ones are spilled to a temporary file (default no limit).
+     */
+    public void setMaxInMemoryItems(final int maxInMemoryItems) {
+        this.maxInMemoryItems = maxInMemoryItems;
+    }
+
+    /**
+     * @param tempDirectory
+     *            the directory of the spilled groups (default java.io.tmpdir).
+     */
+    public void setTempDirectory(final String tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+
+    private void deleteSpilledGroups() {
+        for (final SpilledItemList<T> spilled : spilledGroups) {
+            try {
+                spilled.delete();
+            } catch (final IOException e) {
+                throw new ItemStreamException("Unable to delete a spilled group", e);
+            }
+        }
+        spilledGroups.clear();
+    }
+
     @Override
     public void close() throws ItemStreamException {
+        deleteSpilledGroups();
         delegate.close();
     }
 
@@ -74,6 +135,8 @@ public class ItemListPeekableItemReader<T> implements ItemStreamReader<List<T>>
 
     @Override
     public void update(final ExecutionContext executionContext) throws ItemStreamException {
+        // the chunk is processed and written : its groups are no longer read
+        deleteSpilledGroups();
         delegate.update(executionContext);
     }
 
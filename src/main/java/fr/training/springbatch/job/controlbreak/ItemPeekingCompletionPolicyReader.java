@@ -60,16 +60,25 @@ public class ItemPeekingCompletionPolicyReader<T> extends SimpleCompletionPolicy
 
         @Override
         public boolean isComplete() {
-            T nextReadItem;
-            try {
-                nextReadItem = delegate.peek();
-            } catch (final Exception e) {
-                throw new NonTransientResourceException("Unable to peek", e);
-            }
-            return breakKeyStrategy.isKeyBreak(currentReadItem, nextReadItem);
+            return isKeyBreak();
         }
     }
 
+    /**
+     * Peek the next item : a null next item (end of data) is treated as a key break.
+     *
+     * @return true if the last read item ends its group.
+     */
+    protected boolean isKeyBreak() {
+        T nextReadItem;
+        try {
+            nextReadItem = delegate.peek();
+        } catch (final Exception e) {
+            throw new NonTransientResourceException("Unable to peek", e);
+        }
+        return nextReadItem == null || breakKeyStrategy.isKeyBreak(currentReadItem, nextReadItem);
+    }
+
     public void setDelegate(final PeekableItemReader<T> delegate) {
         this.delegate = delegate;
     }
@@ -0,0 +1,196 @@
+package fr.training.springbatch.job.controlbreak;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only {@link List} whose first items are kept in memory and the others in a temporary file, read again lazily at each iteration.
+ * <p>
+ * Sequential access (iterator, stream, for-each) costs one pass on the file; random access (get) reads the file up to the requested index. The items must be
+ * {@link java.io.Serializable}.
+ * </p>
+ *
+ * @param <T>
+ *            The class of the items
+ *
+ * @author Desprez
+ */
+class SpilledItemList<T> extends AbstractSequentialList<T> {
+
+    /**
+     * Reset the object stream periodically so that it doesn't retain every item written.
+     */
+    private static final int RESET_INTERVAL = 1000;
+
+    private final List<T> head;
+
+    private final Path file;
+
+    private ObjectOutputStream output;
+
+    private int spilledCount;
+
+    private final List<ObjectInputStream> openedInputs = new ArrayList<>();
+
+    /**
+     * @param head
+     *            the items kept in memory
+     * @param file
+     *            the temporary file that receives the next items
+     */
+    SpilledItemList(final List<T> head, final Path file) throws IOException {
+        this.head = head;
+        this.file = file;
+        output = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    /**
+     * Append an item to the file (only while the group is being read).
+     */
+    void spill(final T item) throws IOException {
+        output.writeObject(item);
+        if (++spilledCount % RESET_INTERVAL == 0) {
+            output.reset();
+        }
+    }
+
+    /**
+     * End of the group : the list becomes readable.
+     */
+    void complete() throws IOException {
+        output.close();
+        output = null;
+    }
+
+    /**
+     * Close the iterations left open and delete the file.
+     */
+    void delete() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+        for (final ObjectInputStream input : openedInputs) {
+            input.close();
+        }
+        openedInputs.clear();
+        Files.deleteIfExists(file);
+    }
+
+    @Override
+    public int size() {
+        return head.size() + spilledCount;
+    }
+
+    @Override
+    public ListIterator<T> listIterator(final int index) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        if (output != null) {
+            throw new IllegalStateException("The group is still being read");
+        }
+        final SpilledIterator iterator = new SpilledIterator();
+        while (iterator.nextIndex() < index) {
+            iterator.next();
+        }
+        return iterator;
+    }
+
+    /**
+     * Forward only iterator : the in-memory items, then the file items.
+     */
+    private final class SpilledIterator implements ListIterator<T> {
+
+        private int index;
+
+        private ObjectInputStream input;
+
+        @Override
+        public boolean hasNext() {
+            return index < size();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (index < head.size()) {
+                return head.get(index++);
+            }
+            try {
+                if (input == null) {
+                    input = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)));
+                    openedInputs.add(input);
+                }
+                @SuppressWarnings("unchecked")
+                final T item = (T) input.readObject();
+                if (++index == size()) {
+                    closeInput();
+                }
+                return item;
+            } catch (final EOFException e) {
+                throw new NoSuchElementException("Spill file " + file + " is truncated");
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (final ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void closeInput() throws IOException {
+            input.close();
+            openedInputs.remove(input);
+            input = null;
+        }
+
+        @Override
+        public int nextIndex() {
+            return index;
+        }
+
+        @Override
+        public int previousIndex() {
+            return index - 1;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return index > 0;
+        }
+
+        @Override
+        public T previous() {
+            throw new UnsupportedOperationException("Forward only iteration");
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Read-only list");
+        }
+
+        @Override
+        public void set(final T item) {
+            throw new UnsupportedOperationException("Read-only list");
+        }
+
+        @Override
+        public void add(final T item) {
+            throw new UnsupportedOperationException("Read-only list");
+        }
+    }
+
+}
@@ -1,12 +1,22 @@
 package fr.training.springbatch.job.dynamic;
 
-import java.io.File;
-import java.util.Arrays;
+import static fr.training.springbatch.tools.validator.ParameterRequirement.required;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.job.flow.Flow;
@@ -24,16 +34,34 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.Assert;
 
 import fr.training.springbatch.app.dto.Customer;
 import fr.training.springbatch.app.job.AbstractJobConfiguration;
-
+import fr.training.springbatch.tools.executor.ManagedTaskExecutor;
+import fr.training.springbatch.tools.validator.AdditiveJobParametersValidatorBuilder;
+import fr.training.springbatch.tools.validator.JobParameterRequirementValidator;
+
+/**
+ * One step by file of the <code>input-path</code> job parameter (a directory pattern like <code>csv/big/customer*.csv</code>), all run in parallel.
+ * <p>
+ * The parallel flow is built when the job starts, from the files found at that time. The steps run on the shared {@link ManagedTaskExecutor}
+ * (<code>application.executor.pool-size</code> steps at the same time), and are started largest file first : a free thread always takes the largest file
+ * left (LPT scheduling), so a big file never starts last and stretches the total run time.
+ * </p>
+ * <p>
+ * The step and output file names come from the input file name : two files with the same name in different directories fail the job at start.
+ * </p>
+ */
 @Configuration
 @ConditionalOnProperty(name = "spring.batch.job.names", havingValue = DynamicParallelJobConfig.DYNAMIC_PARALLEL_JOB)
 public class DynamicParallelJobConfig extends AbstractJobConfiguration {
 
+    private static final Logger logger = LoggerFactory.getLogger(DynamicParallelJobConfig.class);
+
     protected static final String DYNAMIC_PARALLEL_JOB = "dynamicParallelJob";
 
     @Value("${application.dynamic-steps.chunksize:10}")
@@ -45,24 +73,59 @@ public class DynamicParallelJobConfig extends AbstractJobConfiguration {
     @Autowired
     private PlatformTransactionManager transactionManager;
 
-    List<String> filenames = Arrays.asList("customer01.csv", "customer02.csv");
-
     @Bean
-    Job dynamicParallelJob(final JobRepository jobRepository) {
-
-        final List<Step> steps = filenames.stream().map(this::createStep).collect(Collectors.toList());
+    Job dynamicParallelJob(final JobRepository jobRepository, final Step parallelStep) {
 
         return new JobBuilder(DYNAMIC_PARALLEL_JOB, jobRepository) //
-                .start(createParallelFlow(steps)) //
-                .end() //
+                .validator(new AdditiveJobParametersValidatorBuilder() //
+                        .addValidator(new JobParameterRequirementValidator("input-path", required())) //
+                        .addValidator(new JobParameterRequirementValidator("output-path", required())) //
+                        .build()) //
+                .start(parallelStep) //
                 .listener(reportListener()) //
                 .build();
     }
 
+    /**
+     * The steps are generated at runtime from the input files, largest first.
+     */
+    @JobScope // Mandatory for using jobParameters
+    @Bean
+    Step parallelStep(@Value("#{jobParameters['input-path']}") final Resource[] inputResources,
+            @Value("#{jobParameters['output-path']}") final String outputPath, final ManagedTaskExecutor batchTaskExecutor) throws IOException {
+
+        checkUniqueFilenames(inputResources);
+        final List<Step> steps = largestFirst(inputResources).stream() //
+                .map(resource -> createStep(resource, outputPath)) //
+                .collect(Collectors.toList());
+        logger.info("{} files read by at most {} parallel steps", steps.size(), batchTaskExecutor.getPoolSize());
+
+        return new StepBuilder("parallel-step", jobRepository) //
+                .flow(createParallelFlow(steps, batchTaskExecutor)) //
+                .build();
+    }
+
+    private static void checkUniqueFilenames(final Resource[] resources) {
+        final Set<String> filenames = new HashSet<>();
+        for (final Resource resource : resources) {
+            Assert.state(filenames.add(resource.getFilename()),
+                    () -> "Duplicate input file name " + resource.getFilename() + " : step and output names must be unique");
+        }
+    }
+
+    private static List<Resource> largestFirst(final Resource[] resources) throws IOException {
+        final Map<Resource, Long> sizes = new HashMap<>();
+        for (final Resource resource : resources) {
+            sizes.put(resource, resource.contentLength());
+        }
+        final List<Resource> sorted = new ArrayList<>(sizes.keySet());
+        sorted.sort(Comparator.<Resource, Long> comparing(sizes::get).reversed());
+        return sorted;
+    }
+
     // helper method to create a split flow out of a List of steps
-    private static Flow createParallelFlow(final List<Step> steps) {
-        final SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor();
-        taskExecutor.setConcurrencyLimit(steps.size());
+    private static Flow createParallelFlow(final List<Step> steps, final TaskExecutor taskExecutor) {
+        // the flows are submitted in order and started in that order as the threads of the executor get free
 
         final List<Flow> flows = steps.stream() // we have to convert the steps to a flows
                 .map(step -> //
@@ -78,18 +141,19 @@ public class DynamicParallelJobConfig extends AbstractJobConfiguration {
     }
 
     // helper method to create a step
-    private Step createStep(final String filename) {
+    private Step createStep(final Resource resource, final String outputPath) {
+        final String filename = resource.getFilename();
 
         return new StepBuilder("step-for-" + filename, jobRepository) // !!! Stepname has to be unique
                 .<Customer, Customer> chunk(chunkSize, transactionManager)
-                .reader(fileReader(new FileSystemResource(new File("src/main/resources/csv/big/" + filename))))
-                .writer(fileWriter(new FileSystemResource("target/output/big/" + filename))).build();
+                .reader(fileReader(resource))
+                .writer(fileWriter(new FileSystemResource(outputPath + filename))).build();
     }
 
-    private ItemReader<Customer> fileReader(final FileSystemResource fileSystemResource) {
+    private ItemReader<Customer> fileReader(final Resource resource) {
         return new FlatFileItemReaderBuilder<Customer>() //
                 .name("itemReader") //
-                .resource(fileSystemResource) //
+                .resource(resource) //
                 .delimited() //
                 .delimiter(";") //
                 .names("number", "firstName", "lastName", "address", "city", "postCode", "state", "birthDate") //
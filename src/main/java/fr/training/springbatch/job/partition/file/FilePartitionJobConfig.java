@@ -12,14 +12,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.builder.JobBuilder;
-import org.springframework.batch.core.partition.support.MultiResourcePartitioner;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
 import org.springframework.beans.factory.annotation.Value;
@@ -29,17 +27,24 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import fr.training.springbatch.app.dto.Customer;
 import fr.training.springbatch.app.job.AbstractJobConfiguration;
+import fr.training.springbatch.tools.executor.ManagedTaskExecutor;
 import fr.training.springbatch.tools.listener.OutputFileListener;
+import fr.training.springbatch.tools.partition.FileRangePartitioner;
+import fr.training.springbatch.tools.partition.WorkQueuePartitionHandler;
+import fr.training.springbatch.tools.reader.ByteOffsetFlatFileItemReader;
+import fr.training.springbatch.tools.reader.ByteOffsetFlatFileItemReaderBuilder;
+import fr.training.springbatch.tools.tasklet.MergeFilesTasklet;
 import fr.training.springbatch.tools.validator.AdditiveJobParametersValidatorBuilder;
 import fr.training.springbatch.tools.validator.JobParameterRequirementValidator;
 
 /**
- * <b>Pattern #14</b>
+ * <b>Pattern #14</b> The input files are split into line-aligned byte ranges by the {@link FileRangePartitioner}, so that a single huge file is read by all the
+ * partition workers. Each partition reads its own range with a {@link ByteOffsetFlatFileItemReader} (restartable by partition) and writes its own output
+ * file, suffixed by the range index when the file is split. The partition files are then merged into a single output file by the {@link MergeFilesTasklet}.
  *
  * @author Desprez
  */
@@ -54,7 +59,7 @@ public class FilePartitionJobConfig extends AbstractJobConfiguration {
     public static final BigDecimal FIXED_AMOUNT = new BigDecimal("5");
 
     @Bean
-    Job partitionJob(final Step masterStep, final JobRepository jobRepository) {
+    Job partitionJob(final Step masterStep, final Step mergeStep, final JobRepository jobRepository) {
 
         return new JobBuilder(PARTITION_JOB, jobRepository)
                 .validator(new AdditiveJobParametersValidatorBuilder()
@@ -62,35 +67,60 @@ public class FilePartitionJobConfig extends AbstractJobConfiguration {
                         .addValidator(new JobParameterRequirementValidator("output-path", required().and(directoryExist())))
                         .build())
                 .start(masterStep)//
+                .next(mergeStep)//
                 .build();
     }
 
     // Master
     @Bean
-    Step masterStep(final JobRepository jobRepository, final Step slaveStep, final MultiResourcePartitioner partitioner) throws IOException {
+    Step masterStep(final JobRepository jobRepository, final Step slaveStep, final WorkQueuePartitionHandler partitionHandler,
+            final FileRangePartitioner partitioner) throws IOException {
 
         return new StepBuilder("master-step", jobRepository)
                 .partitioner(slaveStep.getName(), partitioner)
-                .step(slaveStep)
-                .gridSize(4)
-                .taskExecutor(new SimpleAsyncTaskExecutor())
+                .partitionHandler(partitionHandler)
                 .build();
     }
 
+    @Bean
+    WorkQueuePartitionHandler partitionHandler(final Step slaveStep, final ManagedTaskExecutor batchTaskExecutor) {
+        return workQueuePartitionHandler(slaveStep, batchTaskExecutor);
+    }
+
     @StepScope // Mandatory for using jobParameters
     @Bean
-    MultiResourcePartitioner partitioner(@Value("#{jobParameters['input-path']}") final Resource[] inputResources) throws IOException {
-        final MultiResourcePartitioner partitioner = new MultiResourcePartitioner();
-        partitioner.partition(10);
+    FileRangePartitioner partitioner(@Value("#{jobParameters['input-path']}") final Resource[] inputResources) throws IOException {
+        final FileRangePartitioner partitioner = new FileRangePartitioner();
         partitioner.setResources(inputResources);
         return partitioner;
     }
 
+    /**
+     * Concatenation of the partition output files, in partition order, without parsing them again.
+     */
+    @Bean
+    Step mergeStep(final JobRepository jobRepository, final PlatformTransactionManager transactionManager, final MergeFilesTasklet mergeFilesTasklet) {
+        return new StepBuilder("merge-step", jobRepository)
+                .tasklet(mergeFilesTasklet, transactionManager)
+                .build();
+    }
+
+    @StepScope // Mandatory for using jobParameters
+    @Bean
+    MergeFilesTasklet mergeFilesTasklet(@Value("#{jobParameters['output-path']}") final String outputPath, final JobExplorer jobExplorer) {
+        final MergeFilesTasklet tasklet = new MergeFilesTasklet();
+        tasklet.setStepName("slave-step");
+        tasklet.setJobExplorer(jobExplorer);
+        tasklet.setOutputFile(outputPath + "merged.csv");
+        tasklet.setDeleteInputs(true);
+        return tasklet;
+    }
+
     // slave step
     @Bean
     Step slaveStep(final JobRepository jobRepository,
             final PlatformTransactionManager transactionManager,
-            final FlatFileItemReader<Customer> itemReader,
+            final ByteOffsetFlatFileItemReader<Customer> itemReader,
             final ItemProcessor<Customer, Customer> processor,
             final FlatFileItemWriter<Customer> itemWriter,
             final OutputFileListener fileNameListener) {
@@ -114,13 +144,15 @@ public class FilePartitionJobConfig extends AbstractJobConfiguration {
 
     @StepScope // Mandatory for using jobParameters
     @Bean
-    FlatFileItemReader<Customer> itemReader(@Value("#{stepExecutionContext['fileName']}") final String fileName) throws MalformedURLException {
-        logger.info("fileName {}", fileName);
+    ByteOffsetFlatFileItemReader<Customer> itemReader(@Value("#{stepExecutionContext['fileName']}") final String fileName,
+            @Value("#{stepExecutionContext['startOffset']}") final Long startOffset,
+            @Value("#{stepExecutionContext['endOffset']}") final Long endOffset) throws MalformedURLException {
+        logger.info("fileName {} [{}-{}]", fileName, startOffset, endOffset);
 
-        return new FlatFileItemReaderBuilder<Customer>()
+        return new ByteOffsetFlatFileItemReaderBuilder<Customer>()
                 .name("itemReader")
                 .resource(new UrlResource(fileName))
-                .delimited()
+                .range(startOffset, endOffset)
                 .delimiter(";")
                 .names("number", "firstName", "lastName", "address", "city", "postCode", "state", "birthDate")
                 // .linesToSkip(1)
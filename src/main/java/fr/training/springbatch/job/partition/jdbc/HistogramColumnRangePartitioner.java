@@ -0,0 +1,193 @@
+package fr.training.springbatch.job.partition.jdbc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Partitioner for the values of one or several columns (composite key) of a database table, whose boundaries come from the actual distribution of the rows
+ * (<code>NTILE</code> window function) : every partition holds about the same number of rows whatever the gaps or the skew of the key values.
+ * <p>
+ * The execution context of a partition holds, for each key column, its inclusive <code>lowerBound.&lt;column&gt;</code> (except for the first partition)
+ * and its exclusive <code>upperBound.&lt;column&gt;</code> (except for the last partition) : use {@link #rangeCondition(ExecutionContext)} and
+ * {@link #rangeParameters(ExecutionContext)} to build the where clause of the partition reader. With a single integral column, the context also holds the
+ * inclusive <code>minValue</code> and <code>maxValue</code> longs, like the {@link ColumnRangePartitioner}.
+ * </p>
+ */
+public class HistogramColumnRangePartitioner implements Partitioner {
+
+    public static final String LOWER_BOUND = "lowerBound.";
+
+    public static final String UPPER_BOUND = "upperBound.";
+
+    private JdbcOperations jdbcTemplate;
+
+    private String table;
+
+    private String[] columns;
+
+    /**
+     * The name of the SQL table the data are in.
+     *
+     * @param table
+     *            the name of the table
+     */
+    public void setTable(final String table) {
+        this.table = table;
+    }
+
+    /**
+     * The name of the column to partition.
+     *
+     * @param column
+     *            the column name.
+     */
+    public void setColumn(final String column) {
+        setColumns(column);
+    }
+
+    /**
+     * The names of the columns of a composite key, in their sort order.
+     *
+     * @param columns
+     *            the column names.
+     */
+    public void setColumns(final String... columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * The data source for connecting to the database.
+     *
+     * @param dataSource
+     *            a {@link DataSource}
+     */
+    public void setDataSource(final DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Split the rows in <code>gridSize</code> tiles of equal row counts (a tile boundary inside a run of equal keys moves the whole run to the next
+     * partition, so there may be less than <code>gridSize</code> partitions).
+     *
+     * @see Partitioner#partition(int)
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(final int gridSize) {
+        Assert.hasText(table, "table is required");
+        Assert.notEmpty(columns, "column is required");
+        Assert.isTrue(gridSize > 0, "gridSize must be greater than zero");
+
+        final String keys = String.join(", ", columns);
+        // first key of each tile
+        final List<Object[]> lowerBounds = jdbcTemplate.query("SELECT " + keys + " FROM (SELECT " + keys + ", ROW_NUMBER() OVER (PARTITION BY tile_ ORDER BY "
+                + keys + ") AS rn_ FROM (SELECT " + keys + ", NTILE(" + gridSize + ") OVER (ORDER BY " + keys + ") AS tile_ FROM " + table
+                + ") tiles) firsts WHERE rn_ = 1 ORDER BY " + keys, (rs, rowNum) -> {
+                    final Object[] key = new Object[columns.length];
+                    for (int i = 0; i < columns.length; i++) {
+                        key[i] = rs.getObject(i + 1);
+                    }
+                    return key;
+                });
+        final List<Object[]> bounds = new ArrayList<>(lowerBounds.size());
+        for (final Object[] bound : lowerBounds) {
+            if (bounds.isEmpty() || !Arrays.equals(bounds.get(bounds.size() - 1), bound)) {
+                bounds.add(bound);
+            }
+        }
+
+        final boolean integral = columns.length == 1 && !bounds.isEmpty() && isIntegral(bounds.get(0)[0]);
+        final Long max = integral ? jdbcTemplate.queryForObject("SELECT MAX(" + columns[0] + ") FROM " + table, Long.class) : null;
+
+        final Map<String, ExecutionContext> result = new HashMap<>();
+        for (int number = 0; number < bounds.size(); number++) {
+            final ExecutionContext value = new ExecutionContext();
+            result.put("partition" + number, value);
+            final boolean last = number == bounds.size() - 1;
+            for (int i = 0; i < columns.length; i++) {
+                if (number > 0) {
+                    value.put(LOWER_BOUND + columns[i], bounds.get(number)[i]);
+                }
+                if (!last) {
+                    value.put(UPPER_BOUND + columns[i], bounds.get(number + 1)[i]);
+                }
+            }
+            if (integral) {
+                value.putLong("minValue", ((Number) bounds.get(number)[0]).longValue());
+                value.putLong("maxValue", last ? max : ((Number) bounds.get(number + 1)[0]).longValue() - 1);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isIntegral(final Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * @param partition
+     *            the execution context of a partition
+     * @return the SQL condition of the key range of the partition (lexicographic order for a composite key), with the named parameters of
+     *         {@link #rangeParameters(ExecutionContext)}
+     */
+    public String rangeCondition(final ExecutionContext partition) {
+        final List<String> conditions = new ArrayList<>(2);
+        if (partition.containsKey(LOWER_BOUND + columns[0])) {
+            conditions.add(lexicographic(">", ">=", "lower"));
+        }
+        if (partition.containsKey(UPPER_BOUND + columns[0])) {
+            conditions.add(lexicographic("<", "<", "upper"));
+        }
+        return conditions.isEmpty() ? "1 = 1" : String.join(" AND ", conditions);
+    }
+
+    /**
+     * (c1 > :p0) OR (c1 = :p0 AND c2 > :p1) OR ... OR (c1 = :p0 AND ... AND cn >= :pn)
+     */
+    private String lexicographic(final String operator, final String lastOperator, final String prefix) {
+        if (columns.length == 1) {
+            return columns[0] + " " + lastOperator + " :" + prefix + "0";
+        }
+        final List<String> terms = new ArrayList<>(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            final StringBuilder term = new StringBuilder("(");
+            for (int j = 0; j < i; j++) {
+                term.append(columns[j]).append(" = :").append(prefix).append(j).append(" AND ");
+            }
+            term.append(columns[i]).append(' ').append(i == columns.length - 1 ? lastOperator : operator).append(" :").append(prefix).append(i).append(')');
+            terms.add(term.toString());
+        }
+        return "(" + String.join(" OR ", terms) + ")";
+    }
+
+    /**
+     * @param partition
+     *            the execution context of a partition
+     * @return the values of the named parameters of {@link #rangeCondition(ExecutionContext)}
+     */
+    public Map<String, Object> rangeParameters(final ExecutionContext partition) {
+        final Map<String, Object> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            if (partition.containsKey(LOWER_BOUND + columns[i])) {
+                parameters.put("lower" + i, Objects.requireNonNull(partition.get(LOWER_BOUND + columns[i])));
+            }
+            if (partition.containsKey(UPPER_BOUND + columns[i])) {
+                parameters.put("upper" + i, Objects.requireNonNull(partition.get(UPPER_BOUND + columns[i])));
+            }
+        }
+        return parameters;
+    }
+
+}
@@ -5,12 +5,18 @@ import java.util.Map;
 
 import javax.sql.DataSource;
 
+import jakarta.jms.ConnectionFactory;
+
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.partition.PartitionHandler;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.integration.config.annotation.EnableBatchIntegration;
+import org.springframework.batch.integration.partition.RemotePartitioningManagerStepBuilderFactory;
+import org.springframework.batch.integration.partition.RemotePartitioningWorkerStepBuilderFactory;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.batch.item.database.JdbcPagingItemReader;
@@ -23,15 +29,22 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.jms.dsl.Jms;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import fr.training.springbatch.app.dto.Customer;
 import fr.training.springbatch.app.job.AbstractJobConfiguration;
+import fr.training.springbatch.tools.executor.ManagedTaskExecutor;
+import fr.training.springbatch.tools.partition.WorkQueuePartitionHandler;
 
 /**
  * <b>Pattern #15</b>
  *
+ * With <code>application.partition.remote=true</code>, the partitions are sent to the workers over JMS (remote partitioning, see
+ * {@link RemotePartitioningConfiguration}). The workers share the job repository and the customer tables with the manager.
+ *
  * @author Desprez
  */
 @Configuration
@@ -40,6 +53,8 @@ public class JDBCPartitionJobConfig extends AbstractJobConfiguration {
 
     protected static final String PARTITION_JOB = "partition-job";
 
+    private static final String WORKER_STEP = "slave-step";
+
     @Autowired
     private DataSource dataSource;
 
@@ -53,23 +68,124 @@ public class JDBCPartitionJobConfig extends AbstractJobConfiguration {
 
     // Master
     @Bean
-    Step masterStep(final JobRepository jobRepository, final Step slaveStep) {
+    @ConditionalOnProperty(name = "application.partition.remote", havingValue = "false", matchIfMissing = true)
+    Step masterStep(final JobRepository jobRepository, final Step slaveStep, final PartitionHandler partitionHandler) {
 
         return new StepBuilder("master-step", jobRepository)
                 .partitioner(slaveStep.getName(), partitioner())
-                .step(slaveStep)
-                .gridSize(4)
-                .taskExecutor(new SimpleAsyncTaskExecutor())
+                .partitionHandler(partitionHandler)
                 .build();
     }
 
+    @Bean
+    @ConditionalOnProperty(name = "application.partition.remote", havingValue = "false", matchIfMissing = true)
+    WorkQueuePartitionHandler partitionHandler(final Step slaveStep, final ManagedTaskExecutor batchTaskExecutor) {
+        return workQueuePartitionHandler(slaveStep, batchTaskExecutor);
+    }
+
+    // Remote partitioning
+
+    /**
+     * Manager and workers of the remote partitioning, linked by a JMS queue : the manager sends one message by partition and polls the shared job
+     * repository for their end, each JVM running this configuration consumes the messages with <code>application.partition.thread-count</code>
+     * listeners. A JMS {@link ConnectionFactory} must be available (e.g. the Artemis starter and its <code>spring.artemis.*</code> properties).
+     */
+    @Configuration
+    @EnableBatchIntegration
+    @ConditionalOnProperty(name = "application.partition.remote", havingValue = "true")
+    static class RemotePartitioningConfiguration {
+
+        private static final String PARTITION_REQUESTS_QUEUE = "partition-requests";
+
+        @Value("${application.partition.thread-count:0}")
+        private int threadCount;
+
+        @Value("${application.partition.partitions-per-thread:10}")
+        private int partitionsPerThread;
+
+        /**
+         * Milliseconds between two reads of the partitions status by the manager.
+         */
+        @Value("${application.partition.poll-interval:1000}")
+        private long pollInterval;
+
+        /**
+         * Milliseconds the manager waits for the end of all the partitions : a worker JVM dying in the middle of a partition leaves it STARTED, the
+         * manager step then fails instead of waiting forever.
+         */
+        @Value("${application.partition.timeout:3600000}")
+        private long timeout;
+
+        // Manager
+        @Bean
+        Step masterStep(final RemotePartitioningManagerStepBuilderFactory managerStepBuilderFactory, final HistogramColumnRangePartitioner partitioner) {
+
+            return managerStepBuilderFactory.get("master-step")
+                    .partitioner(WORKER_STEP, partitioner)
+                    .gridSize(workerThreadCount() * partitionsPerThread)
+                    .outputChannel(partitionRequests()) // no input channel : the manager polls the job repository
+                    .pollInterval(pollInterval)
+                    .timeout(timeout)
+                    .build();
+        }
+
+        @Bean
+        DirectChannel partitionRequests() {
+            return new DirectChannel();
+        }
+
+        @Bean
+        IntegrationFlow outboundPartitionRequests(final ConnectionFactory connectionFactory) {
+            return IntegrationFlow.from(partitionRequests()) //
+                    .handle(Jms.outboundAdapter(connectionFactory).destination(PARTITION_REQUESTS_QUEUE)) //
+                    .get();
+        }
+
+        // Workers
+        @Bean
+        DirectChannel workerRequests() {
+            return new DirectChannel();
+        }
+
+        @Bean
+        IntegrationFlow inboundPartitionRequests(final ConnectionFactory connectionFactory) {
+            return IntegrationFlow.from(Jms.messageDrivenChannelAdapter(connectionFactory) //
+                    .destination(PARTITION_REQUESTS_QUEUE) //
+                    .configureListenerContainer(container -> container.concurrentConsumers(workerThreadCount()))) //
+                    .channel(workerRequests()) //
+                    .get();
+        }
+
+        /**
+         * The workers find the step to run by its name in the bean factory.
+         */
+        @Bean(WORKER_STEP)
+        Step workerStep(final RemotePartitioningWorkerStepBuilderFactory workerStepBuilderFactory, final PlatformTransactionManager transactionManager,
+                final ItemReader<Customer> pagingItemReader, final JdbcBatchItemWriter<Customer> customerItemWriter) {
+
+            return slaveStep(workerStepBuilderFactory.get(WORKER_STEP).inputChannel(workerRequests()), transactionManager, pagingItemReader,
+                    customerItemWriter);
+        }
+
+        private int workerThreadCount() {
+            return threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+        }
+
+    }
+
     // slave step
     @Bean
+    @ConditionalOnProperty(name = "application.partition.remote", havingValue = "false", matchIfMissing = true)
     Step slaveStep(final JobRepository jobRepository, final PlatformTransactionManager transactionManager, final ItemReader<Customer> pagingItemReader,
             final JdbcBatchItemWriter<Customer> customerItemWriter) {
 
-        return new StepBuilder("slave-step", jobRepository)
-                .<Customer, Customer> chunk(1000, transactionManager)
+        return slaveStep(new StepBuilder(WORKER_STEP, jobRepository), transactionManager, pagingItemReader, customerItemWriter);
+    }
+
+    private static Step slaveStep(final StepBuilder stepBuilder, final PlatformTransactionManager transactionManager, final ItemReader<Customer> pagingItemReader,
+            final JdbcBatchItemWriter<Customer> customerItemWriter) {
+
+        return stepBuilder.<Customer, Customer> chunk(1000, transactionManager)
                 .reader(pagingItemReader)
                 .writer(customerItemWriter)
                 .build();
@@ -77,8 +193,9 @@ public class JDBCPartitionJobConfig extends AbstractJobConfiguration {
 
     @Bean
     @DependsOnDatabaseInitialization
-    ColumnRangePartitioner partitioner() {
-        final ColumnRangePartitioner columnRangePartitioner = new ColumnRangePartitioner();
+    HistogramColumnRangePartitioner partitioner() {
+        // partitions of equal row counts, whatever the gaps between the customer numbers
+        final HistogramColumnRangePartitioner columnRangePartitioner = new HistogramColumnRangePartitioner();
         columnRangePartitioner.setColumn("number");
         columnRangePartitioner.setDataSource(dataSource);
         columnRangePartitioner.setTable("customer");
@@ -98,7 +215,7 @@ public class JDBCPartitionJobConfig extends AbstractJobConfiguration {
         final MySqlPagingQueryProvider queryProvider = new MySqlPagingQueryProvider();
         queryProvider.setSelectClause("number, first_name, last_name, address, city, post_code, state");
         queryProvider.setFromClause("from customer");
-        queryProvider.setWhereClause("where number >= " + minValue + " and number < " + maxValue);
+        queryProvider.setWhereClause("where number >= " + minValue + " and number <= " + maxValue);
         queryProvider.setSortKeys(sortKeys);
 
         final JdbcPagingItemReader<Customer> reader = new JdbcPagingItemReader<>();
@@ -12,19 +12,15 @@ import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
-import org.springframework.batch.item.database.support.DataFieldMaxValueIncrementerFactory;
-import org.springframework.batch.item.database.support.DefaultDataFieldMaxValueIncrementerFactory;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.mapping.RecordFieldSetMapper;
 import org.springframework.batch.item.validator.SpringValidator;
 import org.springframework.batch.item.validator.ValidatingItemProcessor;
-import org.springframework.batch.support.DatabaseType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -33,16 +29,23 @@ import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitializat
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
-import org.springframework.core.task.TaskExecutor;
 import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import fr.training.springbatch.app.dto.Transaction;
 import fr.training.springbatch.app.job.AbstractJobConfiguration;
+import fr.training.springbatch.tools.executor.ManagedTaskExecutor;
+import fr.training.springbatch.tools.incrementer.PooledDataFieldMaxValueIncrementer;
 import fr.training.springbatch.tools.listener.ItemCountListener;
+import fr.training.springbatch.tools.staging.ClaimingStagingItemReader;
+import fr.training.springbatch.tools.staging.DeflateStagingItemCodec;
+import fr.training.springbatch.tools.staging.JacksonStagingItemCodec;
 import fr.training.springbatch.tools.staging.ProcessIndicatorItemWrapper;
+import fr.training.springbatch.tools.staging.ProcessIndicatorItemWriter;
+import fr.training.springbatch.tools.staging.RecordStagingItemCodec;
+import fr.training.springbatch.tools.staging.SerializationStagingItemCodec;
+import fr.training.springbatch.tools.staging.StagingItemCodec;
 import fr.training.springbatch.tools.staging.StagingItemProcessor;
 import fr.training.springbatch.tools.staging.StagingItemReader;
 import fr.training.springbatch.tools.staging.StagingItemWriter;
@@ -62,6 +65,37 @@ public class StagingJobConfig extends AbstractJobConfiguration {
     @Autowired
     public DataSource dataSource;
 
+    /**
+     * Staging records fetched in a single query by the loading step reader.
+     */
+    @Value("${application.loading-step.fetch-size:100}")
+    private int fetchSize;
+
+    /**
+     * Staging keys read at a time by the loading step reader.
+     */
+    @Value("${application.loading-step.page-size:10000}")
+    private int pageSize;
+
+    /**
+     * Claim the staging records by blocks, so that several JVMs can run the loading step on the same staging records.
+     */
+    @Value("${application.loading-step.claiming:false}")
+    private boolean claiming;
+
+    /**
+     * Format of the staging payloads : <code>serialization</code> (java, the format of the records staged by the previous versions), <code>record</code>
+     * (compact binary) or <code>jackson</code> (JSON). Staging records left by a previous run must be read with the codec that wrote them.
+     */
+    @Value("${application.staging-step.codec:serialization}")
+    private String codec;
+
+    /**
+     * Deflate compression of the staging payloads.
+     */
+    @Value("${application.staging-step.compression:false}")
+    private boolean compression;
+
     @Bean
     Job stagingJob(final Step stagingStep, final Step loadingStep, final JobRepository jobRepository) {
         return new JobBuilder(STAGING_JOB, jobRepository)
@@ -89,14 +123,13 @@ public class StagingJobConfig extends AbstractJobConfiguration {
 
     @Bean
     Step loadingStep(final JobRepository jobRepository, final PlatformTransactionManager transactionManager,
-            final ItemWriter<? super Transaction> transactionWriter) {
+            final ProcessIndicatorItemWriter<Transaction> processIndicatorWriter, final ManagedTaskExecutor batchTaskExecutor) {
 
         return new StepBuilder("loading-step", jobRepository)
-                .<ProcessIndicatorItemWrapper<Transaction>, Transaction> chunk(2, transactionManager)
+                .<ProcessIndicatorItemWrapper<Transaction>, ProcessIndicatorItemWrapper<Transaction>> chunk(2, transactionManager)
                 .reader(stagingReader())
-                .processor(stagingProcessor())
-                .writer(transactionWriter)
-                .taskExecutor(taskExecutor())
+                .writer(processIndicatorWriter)
+                .taskExecutor(batchTaskExecutor)
                 .listener(progressListener())
                 .build();
     }
@@ -113,11 +146,15 @@ public class StagingJobConfig extends AbstractJobConfiguration {
         return listener;
     }
 
+    /**
+     * Marks the staging records of the whole chunk as processed with a single update (instead of one update by item with a {@link StagingItemProcessor}).
+     */
     @Bean
-    ItemProcessor<? super ProcessIndicatorItemWrapper<Transaction>, ? extends Transaction> stagingProcessor() {
-        final StagingItemProcessor<Transaction> itemProcessor = new StagingItemProcessor<Transaction>();
-        itemProcessor.setDataSource(dataSource);
-        return itemProcessor;
+    ProcessIndicatorItemWriter<Transaction> processIndicatorWriter(final ItemWriter<? super Transaction> transactionWriter) {
+        final ProcessIndicatorItemWriter<Transaction> writer = new ProcessIndicatorItemWriter<>();
+        writer.setDataSource(dataSource);
+        writer.setDelegate(transactionWriter);
+        return writer;
     }
 
     @StepScope // Mandatory for using jobParameters
@@ -153,18 +190,29 @@ public class StagingJobConfig extends AbstractJobConfiguration {
         final StagingItemWriter<Transaction> writer = new StagingItemWriter<Transaction>();
         writer.setDataSource(dataSource);
         writer.setIncrementer(StagingIncrementer);
+        writer.setCodec(stagingItemCodec());
         return writer;
     }
 
+    /**
+     * Shared by the staging writer and the staging reader.
+     */
     @Bean
-    DataFieldMaxValueIncrementer stagingIncrementer() throws MetaDataAccessException {
-        final DataFieldMaxValueIncrementerFactory incrementerFactory = new DefaultDataFieldMaxValueIncrementerFactory(dataSource);
-        return incrementerFactory.getIncrementer(DatabaseType.fromMetaData(dataSource).name(), "BATCH_STAGING_SEQ");
+    StagingItemCodec<Transaction> stagingItemCodec() {
+        final StagingItemCodec<Transaction> itemCodec = switch (codec) {
+        case "serialization" -> new SerializationStagingItemCodec<>();
+        case "record" -> new RecordStagingItemCodec<>(Transaction.class);
+        case "jackson" -> new JacksonStagingItemCodec<>(Transaction.class);
+        default -> throw new IllegalArgumentException("Unknown staging codec '" + codec + "' : expected serialization, record or jackson");
+        };
+        return compression ? new DeflateStagingItemCodec<>(itemCodec) : itemCodec;
     }
 
     @Bean
-    TaskExecutor taskExecutor() {
-        return new SimpleAsyncTaskExecutor("spring_batch");
+    @DependsOnDatabaseInitialization
+    DataFieldMaxValueIncrementer stagingIncrementer() throws MetaDataAccessException {
+        // one sequence call reserves a block of ids, as many as the increment of the sequence
+        return PooledDataFieldMaxValueIncrementer.forSequence(dataSource, "BATCH_STAGING_SEQ");
     }
 
     @Bean
@@ -181,8 +229,18 @@ public class StagingJobConfig extends AbstractJobConfiguration {
 
     @Bean
     ItemReader<? extends ProcessIndicatorItemWrapper<Transaction>> stagingReader() {
+        if (claiming) {
+            final ClaimingStagingItemReader<Transaction> reader = new ClaimingStagingItemReader<>();
+            reader.setDataSource(dataSource);
+            reader.setClaimSize(fetchSize);
+            reader.setCodec(stagingItemCodec());
+            return reader;
+        }
         final StagingItemReader<Transaction> reader = new StagingItemReader<Transaction>();
         reader.setDataSource(dataSource);
+        reader.setFetchSize(fetchSize);
+        reader.setPageSize(pageSize);
+        reader.setCodec(stagingItemCodec());
         return reader;
     }
 
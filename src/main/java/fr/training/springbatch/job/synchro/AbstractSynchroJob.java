@@ -2,6 +2,7 @@ package fr.training.springbatch.job.synchro;
 
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.support.AbstractItemStreamItemReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 
 import fr.training.springbatch.app.dto.Customer;
@@ -9,9 +10,29 @@ import fr.training.springbatch.app.dto.Transaction;
 import fr.training.springbatch.app.job.AbstractJobConfiguration;
 import fr.training.springbatch.job.synchro.component.MasterDetailReader;
 import fr.training.springbatch.tools.synchro.CompositeAggregateReader;
+import fr.training.springbatch.tools.synchro.HashJoinAggregateReader;
+import fr.training.springbatch.tools.synchro.MasterSlaveComparator;
 
 public abstract class AbstractSynchroJob extends AbstractJobConfiguration {
 
+    /**
+     * Number of items read ahead by a background thread for each stream (0 = no prefetch).
+     */
+    @Value("${application.synchro.read-ahead-size:0}")
+    private int readAheadSize;
+
+    /**
+     * How master and detail items are joined : <code>merge</code> (sorted streams) or <code>hash</code> (in-memory index of the detail stream).
+     */
+    @Value("${application.synchro.join-mode:merge}")
+    private String joinMode;
+
+    /**
+     * Detail items kept in memory by the hash join before partitioning both streams to disk.
+     */
+    @Value("${application.synchro.hash-join.max-in-memory-items:1000000}")
+    private int maxInMemorySlaveItems;
+
     public AbstractSynchroJob() {
     }
 
@@ -22,18 +43,31 @@ public abstract class AbstractSynchroJob extends AbstractJobConfiguration {
      *            the injected Customer {@link ItemReader} bean
      * @param transactionReader
      *            the injected Transaction {@link ItemReader} bean
-     * @return a {@link MasterDetailReader} bean
+     * @return a {@link CompositeAggregateReader} bean, or a {@link HashJoinAggregateReader} bean in <code>hash</code> join mode
      */
     @Bean(destroyMethod = "")
-    CompositeAggregateReader<Customer, Transaction, Long> masterDetailReader(final AbstractItemStreamItemReader<Customer> customerReader,
+    AbstractItemStreamItemReader<Customer> masterDetailReader(final AbstractItemStreamItemReader<Customer> customerReader,
             final AbstractItemStreamItemReader<Transaction> transactionReader) {
 
+        if ("hash".equals(joinMode)) {
+            final HashJoinAggregateReader<Customer, Transaction, Long> hashJoinReader = new HashJoinAggregateReader<>();
+            hashJoinReader.setName("masterDetailReader");
+            hashJoinReader.setMasterItemReader(customerReader);
+            hashJoinReader.setMasterKeyExtractor(Customer::getNumber);
+            hashJoinReader.setSlaveItemReader(transactionReader);
+            hashJoinReader.setSlaveKeyExtractor(Transaction::customerNumber);
+            hashJoinReader.setMasterAggregator(Customer::addTransaction);
+            hashJoinReader.setMaxInMemorySlaveItems(maxInMemorySlaveItems);
+            return hashJoinReader;
+        }
+
         final CompositeAggregateReader<Customer, Transaction, Long> masterDetailReader = new CompositeAggregateReader<>();
         masterDetailReader.setMasterItemReader(customerReader);
-        masterDetailReader.setMasterKeyExtractor(Customer::getNumber);
         masterDetailReader.setSlaveItemReader(transactionReader);
-        masterDetailReader.setSlaveKeyExtractor(Transaction::customerNumber);
+        // compare the customer numbers as primitives (no key object per item)
+        masterDetailReader.setKeyComparator(MasterSlaveComparator.comparingLong(Customer::getNumber, Transaction::customerNumber));
         masterDetailReader.setMasterAggregator(Customer::addTransaction);
+        masterDetailReader.setReadAheadSize(readAheadSize);
 
         return masterDetailReader;
     }
@@ -18,11 +18,10 @@ import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.batch.item.file.mapping.RecordFieldSetMapper;
+import org.springframework.batch.item.support.AbstractItemStreamItemReader;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -33,7 +32,8 @@ import org.springframework.transaction.PlatformTransactionManager;
 import fr.training.springbatch.app.dto.Customer;
 import fr.training.springbatch.app.dto.Transaction;
 import fr.training.springbatch.job.synchro.component.MasterDetailReader;
-import fr.training.springbatch.tools.synchro.CompositeAggregateReader;
+import fr.training.springbatch.tools.reader.ByteOffsetFlatFileItemReader;
+import fr.training.springbatch.tools.reader.ByteOffsetFlatFileItemReaderBuilder;
 import fr.training.springbatch.tools.synchro.ItemAccumulator;
 import fr.training.springbatch.tools.validator.AdditiveJobParametersValidatorBuilder;
 import fr.training.springbatch.tools.validator.JobParameterRequirementValidator;
@@ -88,7 +88,7 @@ public class File2FileSynchroJobConfig extends AbstractSynchroJob {
      */
     @Bean
     Step file2FileSynchroStep(final JobRepository jobRepository, final PlatformTransactionManager transactionManager,
-            final CompositeAggregateReader<Customer, Transaction, Long> masterDetailReader, final ItemWriter<Customer> customerWriter) {
+            final AbstractItemStreamItemReader<Customer> masterDetailReader, final ItemWriter<Customer> customerWriter) {
 
         return new StepBuilder("file2filesynchro-step", jobRepository)
                 .<Customer, Customer> chunk(chunkSize, transactionManager)
@@ -102,16 +102,15 @@ public class File2FileSynchroJobConfig extends AbstractSynchroJob {
     /**
      * @param customerFile
      *            the injected customer file job parameter
-     * @return a {@link FlatFileItemReader} bean
+     * @return a {@link ByteOffsetFlatFileItemReader} bean (restarts seek to the last committed record)
      */
     @StepScope // Mandatory for using jobParameters
     @Bean
-    FlatFileItemReader<Customer> customerReader(@Value("#{jobParameters['customer-file']}") final String customerFile) {
+    ByteOffsetFlatFileItemReader<Customer> customerReader(@Value("#{jobParameters['customer-file']}") final String customerFile) {
 
-        return new FlatFileItemReaderBuilder<Customer>()
+        return new ByteOffsetFlatFileItemReaderBuilder<Customer>()
                 .name("customerReader")
                 .resource(new FileSystemResource(customerFile))
-                .delimited()
                 .delimiter(";")
                 .names("number", "firstName", "lastName", "address", "city", "state", "postCode") //
                 .linesToSkip(1)
@@ -121,12 +120,11 @@ public class File2FileSynchroJobConfig extends AbstractSynchroJob {
 
     @StepScope // Mandatory for using jobParameters
     @Bean
-    FlatFileItemReader<Transaction> transactionReader(@Value("#{jobParameters['transaction-file']}") final String transactionFile /* injected by Spring */) {
+    ByteOffsetFlatFileItemReader<Transaction> transactionReader(@Value("#{jobParameters['transaction-file']}") final String transactionFile /* injected by Spring */) {
 
-        return new FlatFileItemReaderBuilder<Transaction>()
+        return new ByteOffsetFlatFileItemReaderBuilder<Transaction>()
                 .name("transactionReader")
                 .resource(new FileSystemResource(transactionFile))
-                .delimited()
                 .delimiter(";")
                 .names("customerNumber", "number", "transactionDate", "amount")
                 .linesToSkip(1)
@@ -27,6 +27,7 @@ import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.support.AbstractItemStreamItemReader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -38,7 +39,6 @@ import org.springframework.transaction.PlatformTransactionManager;
 import fr.training.springbatch.app.dto.Customer;
 import fr.training.springbatch.app.dto.Transaction;
 import fr.training.springbatch.job.synchro.component.MasterDetailReader;
-import fr.training.springbatch.tools.synchro.CompositeAggregateReader;
 import fr.training.springbatch.tools.synchro.ItemAccumulator;
 import fr.training.springbatch.tools.validator.AdditiveJobParametersValidatorBuilder;
 import fr.training.springbatch.tools.validator.JobParameterRequirementValidator;
@@ -95,7 +95,7 @@ public class File2TableSynchroJobConfig extends AbstractSynchroJob {
      */
     @Bean
     Step file2TableSynchroStep(final JobRepository jobRepository, final PlatformTransactionManager transactionManager,
-            final CompositeAggregateReader<Customer, Transaction, Long> masterDetailReader,
+            final AbstractItemStreamItemReader<Customer> masterDetailReader,
             final ItemWriter<? super Customer> customerWriter /* injected by Spring */) {
 
         return new StepBuilder("file2tablesynchro-step", jobRepository)
@@ -4,10 +4,6 @@ import static fr.training.springbatch.tools.validator.ParameterRequirement.fileE
 import static fr.training.springbatch.tools.validator.ParameterRequirement.fileWritable;
 import static fr.training.springbatch.tools.validator.ParameterRequirement.required;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.Job;
@@ -34,14 +30,18 @@ import org.springframework.transaction.PlatformTransactionManager;
 import fr.training.springbatch.app.dto.Transaction;
 import fr.training.springbatch.app.dto.TransactionSum;
 import fr.training.springbatch.app.job.AbstractJobConfiguration;
-import fr.training.springbatch.job.synchro.component.GroupReader;
+import fr.training.springbatch.job.synchro.component.FoldingGroupReader;
 import fr.training.springbatch.job.synchro.component.TransactionAccumulator;
 import fr.training.springbatch.tools.synchro.ItemAccumulator;
 import fr.training.springbatch.tools.validator.AdditiveJobParametersValidatorBuilder;
 import fr.training.springbatch.tools.validator.JobParameterRequirementValidator;
 
 /**
- * <b>Pattern #6</b> This job groups all transactions by customer number and exports result to csv file using {@link ItemAccumulator} & {@link GroupReader}
+ * <b>Pattern #6</b> This job groups all transactions by customer number and exports result to csv file using {@link ItemAccumulator} & {@link FoldingGroupReader}
+ * <p>
+ * Transactions are summed as they are read (see {@link TransactionAccumulator#summing()}), so a customer with millions of transactions doesn't need more
+ * memory than any other.
+ * </p>
  *
  * @author Desprez
  */
@@ -76,17 +76,17 @@ public class GroupingRecordsJobConfig extends AbstractJobConfiguration {
 
     /**
      * @param groupReader
-     *            the injected Transaction {@link GroupReader} bean.
+     *            the injected TransactionSum {@link FoldingGroupReader} bean.
      * @param transactionSumWriter
      *            the injected TransactionSum ItemWriter
      * @return a Step Bean
      */
     @Bean
     Step groupingRecordStep(final JobRepository jobRepository, final PlatformTransactionManager transactionManager,
-            final GroupReader<Transaction, Long> groupReader, final ItemWriter<TransactionSum> transactionSumWriter) {
+            final FoldingGroupReader<Transaction, Long, TransactionSum> groupReader, final ItemWriter<TransactionSum> transactionSumWriter) {
 
         return new StepBuilder("groupingrecord-step", jobRepository) //
-                .<List<Transaction>, TransactionSum> chunk(chunkSize, transactionManager) //
+                .<TransactionSum, TransactionSum> chunk(chunkSize, transactionManager) //
                 .reader(groupReader) //
                 .processor(processor()) //
                 .writer(transactionSumWriter) //
@@ -99,13 +99,14 @@ public class GroupingRecordsJobConfig extends AbstractJobConfiguration {
      *
      * @param transactionReader
      *            the injected Transaction {@link FlatFileItemReader} bean.
-     * @return a {@link GroupReader} bean
+     * @return a {@link FoldingGroupReader} bean
      */
     @Bean(destroyMethod = "")
-    GroupReader<Transaction, Long> groupReader(final FlatFileItemReader<Transaction> transactionReader) {
+    FoldingGroupReader<Transaction, Long, TransactionSum> groupReader(final FlatFileItemReader<Transaction> transactionReader) {
 
-        final GroupReader<Transaction, Long> groupReader = new GroupReader<>();
+        final FoldingGroupReader<Transaction, Long, TransactionSum> groupReader = new FoldingGroupReader<>();
         groupReader.setAccumulator(new TransactionAccumulator(transactionReader));
+        groupReader.setCollector(TransactionAccumulator.summing());
 
         return groupReader;
     }
@@ -131,17 +132,12 @@ public class GroupingRecordsJobConfig extends AbstractJobConfiguration {
     }
 
     /**
-     * Processor that sum customer's transactions to compute his balance, fill and return new TransactionSum objects.
+     * Processor that only logs the TransactionSum objects (the balance is computed by the reader).
      *
      * @return the processor
      */
-    private ItemProcessor<List<Transaction>, TransactionSum> processor() {
-        return items -> {
-            final double sum = items.stream().mapToDouble(Transaction::amount).sum();
-
-            final TransactionSum transactionSum = new TransactionSum(items.get(0).customerNumber(),
-                    new BigDecimal(sum).setScale(2, RoundingMode.HALF_UP).doubleValue());
-
+    private ItemProcessor<TransactionSum, TransactionSum> processor() {
+        return transactionSum -> {
             logger.debug(transactionSum.toString());
             return transactionSum;
         };
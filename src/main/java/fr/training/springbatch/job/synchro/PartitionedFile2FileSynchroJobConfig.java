@@ -0,0 +1,218 @@
+package fr.training.springbatch.job.synchro;
+
+import static fr.training.springbatch.tools.validator.ParameterRequirement.directoryExist;
+import static fr.training.springbatch.tools.validator.ParameterRequirement.fileExist;
+import static fr.training.springbatch.tools.validator.ParameterRequirement.required;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.batch.item.file.mapping.RecordFieldSetMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import fr.training.springbatch.app.dto.Customer;
+import fr.training.springbatch.app.dto.Transaction;
+import fr.training.springbatch.app.job.AbstractJobConfiguration;
+import fr.training.springbatch.tools.executor.ManagedTaskExecutor;
+import fr.training.springbatch.tools.listener.OutputFileListener;
+import fr.training.springbatch.tools.partition.KeyAlignedFilePartitioner;
+import fr.training.springbatch.tools.reader.ByteOffsetFlatFileItemReader;
+import fr.training.springbatch.tools.reader.ByteOffsetFlatFileItemReaderBuilder;
+import fr.training.springbatch.tools.synchro.CompositeAggregateReader;
+import fr.training.springbatch.tools.synchro.MasterSlaveComparator;
+import fr.training.springbatch.tools.validator.AdditiveJobParametersValidatorBuilder;
+import fr.training.springbatch.tools.validator.JobParameterRequirementValidator;
+
+/**
+ * <b>Pattern #3 (partitioned)</b> Same synchronization as the {@link File2FileSynchroJobConfig}, but the 2 sorted files are split into key-aligned byte
+ * ranges by the {@link KeyAlignedFilePartitioner}, and each partition runs its own {@link CompositeAggregateReader} over its ranges in parallel.
+ * <ul>
+ * <li>one master file : customer csv file</li>
+ * <li>one detail file : transaction csv file</li>
+ * </ul>
+ *
+ * Each partition writes its own output file in the output path (the concatenation of the partition files in partition order gives the same result as the
+ * single-threaded job).
+ *
+ * @author Desprez
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.batch.job.names", havingValue = PartitionedFile2FileSynchroJobConfig.PARTITIONED_FILE2FILE_SYNCHRO_JOB)
+public class PartitionedFile2FileSynchroJobConfig extends AbstractJobConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedFile2FileSynchroJobConfig.class);
+
+    protected static final String PARTITIONED_FILE2FILE_SYNCHRO_JOB = "partitionedfile2filesynchro-job";
+
+    @Value("${application.partitionedfile2filesynchro-step.chunksize:10}")
+    private int chunkSize;
+
+    @Value("${application.partitionedfile2filesynchro-step.grid-size:4}")
+    private int gridSize;
+
+    @Bean
+    Job partitionedFile2FileSynchroJob(final Step partitionedFile2FileSynchroStep, final JobRepository jobRepository) {
+        return new JobBuilder(PARTITIONED_FILE2FILE_SYNCHRO_JOB, jobRepository)
+                .incrementer(new RunIdIncrementer()) // job can be launched as many times as desired
+                .validator(new AdditiveJobParametersValidatorBuilder()
+                        .addValidator(new JobParameterRequirementValidator("customer-file", required().and(fileExist())))
+                        .addValidator(new JobParameterRequirementValidator("transaction-file", required().and(fileExist())))
+                        .addValidator(new JobParameterRequirementValidator("output-path", required().and(directoryExist())))
+                        .build())
+                .start(partitionedFile2FileSynchroStep)
+                .listener(reportListener())
+                .build();
+    }
+
+    // Master
+    @Bean
+    Step partitionedFile2FileSynchroStep(final JobRepository jobRepository, final Step file2FileSynchroPartitionStep,
+            final KeyAlignedFilePartitioner<Long> synchroPartitioner, final ManagedTaskExecutor batchTaskExecutor) {
+
+        return new StepBuilder("partitionedfile2filesynchro-step", jobRepository)
+                .partitioner(file2FileSynchroPartitionStep.getName(), synchroPartitioner)
+                .step(file2FileSynchroPartitionStep)
+                .gridSize(gridSize)
+                .taskExecutor(batchTaskExecutor)
+                .build();
+    }
+
+    @StepScope // Mandatory for using jobParameters
+    @Bean
+    KeyAlignedFilePartitioner<Long> synchroPartitioner(@Value("#{jobParameters['customer-file']}") final String customerFile,
+            @Value("#{jobParameters['transaction-file']}") final String transactionFile) {
+
+        final KeyAlignedFilePartitioner<Long> partitioner = new KeyAlignedFilePartitioner<>();
+        partitioner.setMasterResource(new FileSystemResource(customerFile));
+        partitioner.setMasterKeyExtractor(PartitionedFile2FileSynchroJobConfig::firstColumnAsLong);
+        partitioner.setMasterLinesToSkip(1);
+        partitioner.setSlaveResource(new FileSystemResource(transactionFile));
+        partitioner.setSlaveKeyExtractor(PartitionedFile2FileSynchroJobConfig::firstColumnAsLong);
+        partitioner.setSlaveLinesToSkip(1);
+        return partitioner;
+    }
+
+    private static Long firstColumnAsLong(final String line) {
+        final int separator = line.indexOf(';');
+        return Long.valueOf(separator < 0 ? line : line.substring(0, separator));
+    }
+
+    // Partition step
+    @Bean
+    Step file2FileSynchroPartitionStep(final JobRepository jobRepository, final PlatformTransactionManager transactionManager,
+            final CompositeAggregateReader<Customer, Transaction, Long> partitionMasterDetailReader, final FlatFileItemWriter<Customer> customerWriter,
+            final OutputFileListener fileNameListener) {
+
+        return new StepBuilder("file2filesynchro-partition-step", jobRepository)
+                .<Customer, Customer> chunk(chunkSize, transactionManager)
+                .reader(partitionMasterDetailReader)
+                .processor(processor())
+                .writer(customerWriter)
+                .listener(fileNameListener)
+                .build();
+    }
+
+    /**
+     * Unlike the {@link AbstractSynchroJob} one, this reader is step scoped : each partition gets its own (not thread-safe) instance.
+     */
+    @StepScope
+    @Bean(destroyMethod = "")
+    CompositeAggregateReader<Customer, Transaction, Long> partitionMasterDetailReader(final ByteOffsetFlatFileItemReader<Customer> customerReader,
+            final ByteOffsetFlatFileItemReader<Transaction> transactionReader) {
+
+        final CompositeAggregateReader<Customer, Transaction, Long> masterDetailReader = new CompositeAggregateReader<>();
+        masterDetailReader.setMasterItemReader(customerReader);
+        masterDetailReader.setSlaveItemReader(transactionReader);
+        // compare the customer numbers as primitives (no key object per item)
+        masterDetailReader.setKeyComparator(MasterSlaveComparator.comparingLong(Customer::getNumber, Transaction::customerNumber));
+        masterDetailReader.setMasterAggregator(Customer::addTransaction);
+        return masterDetailReader;
+    }
+
+    @StepScope // Mandatory for using jobParameters
+    @Bean
+    ByteOffsetFlatFileItemReader<Customer> customerReader(@Value("#{jobParameters['customer-file']}") final String customerFile,
+            @Value("#{stepExecutionContext['masterStartOffset']}") final Long startOffset,
+            @Value("#{stepExecutionContext['masterEndOffset']}") final Long endOffset) {
+
+        return new ByteOffsetFlatFileItemReaderBuilder<Customer>()
+                .name("customerReader")
+                .resource(new FileSystemResource(customerFile))
+                .range(startOffset, endOffset)
+                .delimiter(";")
+                .names("number", "firstName", "lastName", "address", "city", "state", "postCode") //
+                .linesToSkip(1)
+                .targetType(Customer.class)
+                .build();
+    }
+
+    @StepScope // Mandatory for using jobParameters
+    @Bean
+    ByteOffsetFlatFileItemReader<Transaction> transactionReader(@Value("#{jobParameters['transaction-file']}") final String transactionFile,
+            @Value("#{stepExecutionContext['slaveStartOffset']}") final Long startOffset,
+            @Value("#{stepExecutionContext['slaveEndOffset']}") final Long endOffset) {
+
+        return new ByteOffsetFlatFileItemReaderBuilder<Transaction>()
+                .name("transactionReader")
+                .resource(new FileSystemResource(transactionFile))
+                .range(startOffset, endOffset)
+                .delimiter(";")
+                .names("customerNumber", "number", "transactionDate", "amount")
+                .linesToSkip(1)
+                .fieldSetMapper(new RecordFieldSetMapper<Transaction>(Transaction.class, localDateConverter()))
+                .build();
+    }
+
+    /**
+     * Processor that sum customer's transactions to compute his balance.
+     *
+     * @return the processor
+     */
+    private ItemProcessor<Customer, Customer> processor() {
+        return customer -> {
+            final double sum = customer.getTransactions().stream().mapToDouble(Transaction::amount).sum();
+            customer.setBalance(BigDecimal.valueOf(sum).setScale(2, RoundingMode.HALF_UP).doubleValue());
+            logger.debug("Customer {}", customer);
+            return customer;
+        };
+    }
+
+    @StepScope // Mandatory for using jobParameters
+    @Bean
+    OutputFileListener fileNameListener(@Value("#{jobParameters['output-path']}") final String outputPath) {
+        final OutputFileListener listener = new OutputFileListener();
+        listener.setPath(outputPath);
+        return listener;
+    }
+
+    @StepScope // Mandatory for using jobParameters
+    @Bean
+    FlatFileItemWriter<Customer> customerWriter(@Value("#{stepExecutionContext['outputFile']}") final String outputFile) {
+
+        return new FlatFileItemWriterBuilder<Customer>()
+                .name("customerWriter")
+                .resource(new FileSystemResource(outputFile))
+                .delimited()
+                .delimiter(";")
+                .names("number", "firstName", "lastName", "address", "city", "state", "postCode", "balance") //
+                .build();
+    }
+
+}
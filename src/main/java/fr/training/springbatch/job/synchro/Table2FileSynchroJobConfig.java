@@ -22,11 +22,10 @@ import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
-import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.batch.item.file.mapping.RecordFieldSetMapper;
+import org.springframework.batch.item.support.AbstractItemStreamItemReader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -38,7 +37,8 @@ import org.springframework.transaction.PlatformTransactionManager;
 import fr.training.springbatch.app.dto.Customer;
 import fr.training.springbatch.app.dto.Transaction;
 import fr.training.springbatch.job.synchro.component.MasterDetailReader;
-import fr.training.springbatch.tools.synchro.CompositeAggregateReader;
+import fr.training.springbatch.tools.reader.ByteOffsetFlatFileItemReader;
+import fr.training.springbatch.tools.reader.ByteOffsetFlatFileItemReaderBuilder;
 import fr.training.springbatch.tools.synchro.ItemAccumulator;
 import fr.training.springbatch.tools.validator.AdditiveJobParametersValidatorBuilder;
 import fr.training.springbatch.tools.validator.JobParameterRequirementValidator;
@@ -96,7 +96,7 @@ public class Table2FileSynchroJobConfig extends AbstractSynchroJob {
      */
     @Bean
     Step table2FileSynchroStep(final JobRepository jobRepository, final PlatformTransactionManager transactionManager,
-            final CompositeAggregateReader<Customer, Transaction, Long> masterDetailReader, final ItemWriter<Customer> customerWriter) {
+            final AbstractItemStreamItemReader<Customer> masterDetailReader, final ItemWriter<Customer> customerWriter) {
         return new StepBuilder("table2filesynchro-step", jobRepository)
                 .<Customer, Customer> chunk(chunkSize, transactionManager)
                 .reader(masterDetailReader)
@@ -132,16 +132,15 @@ public class Table2FileSynchroJobConfig extends AbstractSynchroJob {
     /**
      * @param transactionFile
      *            the injected transaction file job parameter
-     * @return a {@link FlatFileItemReader} bean
+     * @return a {@link ByteOffsetFlatFileItemReader} bean (restarts seek to the last committed record)
      */
     @StepScope // Mandatory for using jobParameters
     @Bean
-    FlatFileItemReader<Transaction> transactionReader(@Value("#{jobParameters['transaction-file']}") final String transactionFile) {
+    ByteOffsetFlatFileItemReader<Transaction> transactionReader(@Value("#{jobParameters['transaction-file']}") final String transactionFile) {
 
-        return new FlatFileItemReaderBuilder<Transaction>()
+        return new ByteOffsetFlatFileItemReaderBuilder<Transaction>()
                 .name("transactionReader")
                 .resource(new FileSystemResource(transactionFile))
-                .delimited()
                 .delimiter(";")
                 .names("customerNumber", "number", "transactionDate", "amount")
                 .linesToSkip(1)
@@ -3,19 +3,19 @@ package fr.training.springbatch.job.synchro.component;
 import org.springframework.batch.item.ItemReader;
 
 import fr.training.springbatch.app.dto.Customer;
-import fr.training.springbatch.tools.synchro.ItemAccumulator;
+import fr.training.springbatch.tools.synchro.LongItemAccumulator;
 
 /**
  * Accumulate Customer objects.
  */
-public class CustomerAccumulator extends ItemAccumulator<Customer, Long> {
+public class CustomerAccumulator extends LongItemAccumulator<Customer> {
 
     public CustomerAccumulator(final ItemReader<Customer> reader) {
         super(reader);
     }
 
     @Override
-    public Long getKey(final Customer item) {
+    public long getLongKey(final Customer item) {
         return item.getNumber();
     }
 
@@ -0,0 +1,65 @@
+package fr.training.springbatch.job.synchro.component;
+
+import java.util.stream.Collector;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.NonTransientResourceException;
+import org.springframework.batch.item.ParseException;
+import org.springframework.batch.item.UnexpectedInputException;
+
+import fr.training.springbatch.tools.synchro.ItemAccumulator;
+
+/**
+ * This ItemReader reduces the items that share the same key as they stream, and returns one result by key. Unlike the {@link GroupReader}, a group is never
+ * materialized in a list, so a huge group doesn't need more memory than a small one. It's use the {@link ItemAccumulator#readNextGroup(Collector)}
+ *
+ * @param <T>
+ *            The class of the items to be processed
+ * @param <K>
+ *            The class of the key value of the items being processed.
+ * @param <R>
+ *            The class of the result by key
+ *
+ * @author Desprez
+ */
+public class FoldingGroupReader<T, K extends Comparable<K>, R> implements ItemStreamReader<R> {
+
+    private ItemAccumulator<T, K> accumulator;
+
+    private Collector<? super T, ?, R> collector;
+
+    @Override
+    public R read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
+        return accumulator.readNextGroup(collector);
+    }
+
+    @Override
+    public void open(final ExecutionContext executionContext) throws ItemStreamException {
+        accumulator.open(executionContext);
+    }
+
+    @Override
+    public void update(final ExecutionContext executionContext) throws ItemStreamException {
+        accumulator.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        accumulator.close();
+    }
+
+    public void setAccumulator(final ItemAccumulator<T, K> accumulator) {
+        this.accumulator = accumulator;
+    }
+
+    /**
+     * @param collector
+     *            the fold applied to each group (supplier, accumulator and finisher).
+     */
+    public void setCollector(final Collector<? super T, ?, R> collector) {
+        this.collector = collector;
+    }
+
+}
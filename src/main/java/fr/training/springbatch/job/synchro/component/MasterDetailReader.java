@@ -11,6 +11,7 @@ import org.springframework.batch.item.UnexpectedInputException;
 
 import fr.training.springbatch.app.dto.Customer;
 import fr.training.springbatch.app.dto.Transaction;
+import fr.training.springbatch.tools.synchro.ItemAccumulator;
 
 /**
  * Read the Customer and Transaction records for a key and wrap them in a Customer object.
@@ -60,4 +61,14 @@ public class MasterDetailReader implements ItemStreamReader<Customer> {
     public void setDetailAccumulator(final TransactionAccumulator detailAccumulator) {
         this.detailAccumulator = detailAccumulator;
     }
+
+    /**
+     * Opt-in prefetch mode : master and detail readers are each drained by their own thread.
+     *
+     * @see ItemAccumulator#setReadAheadSize(int)
+     */
+    public void setReadAheadSize(final int readAheadSize) {
+        masterAccumulator.setReadAheadSize(readAheadSize);
+        detailAccumulator.setReadAheadSize(readAheadSize);
+    }
 }
\ No newline at end of file
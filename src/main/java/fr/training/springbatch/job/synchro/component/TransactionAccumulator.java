@@ -1,19 +1,60 @@
 package fr.training.springbatch.job.synchro.component;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.DoubleSummaryStatistics;
+import java.util.stream.Collector;
+
 import org.springframework.batch.item.ItemReader;
 
 import fr.training.springbatch.app.dto.Transaction;
-import fr.training.springbatch.tools.synchro.ItemAccumulator;
+import fr.training.springbatch.app.dto.TransactionSum;
+import fr.training.springbatch.tools.synchro.LongItemAccumulator;
 
-public class TransactionAccumulator extends ItemAccumulator<Transaction, Long> {
+public class TransactionAccumulator extends LongItemAccumulator<Transaction> {
 
     public TransactionAccumulator(final ItemReader<Transaction> reader) {
         super(reader);
     }
 
     @Override
-    public Long getKey(final Transaction item) {
+    public long getLongKey(final Transaction item) {
         return item.customerNumber();
     }
 
+    /**
+     * Fold the transactions of a customer into its {@link TransactionSum} (balance rounded to 2 decimals), to use with
+     * {@link #readNextGroup(Collector)}.
+     */
+    public static Collector<Transaction, ?, TransactionSum> summing() {
+        return Collector.of(Sum::new, Sum::add, Sum::combine, Sum::toTransactionSum);
+    }
+
+    /**
+     * Running sum of a customer transactions (compensated summation, like DoubleStream.sum()).
+     */
+    private static final class Sum {
+
+        private Long customerNumber;
+
+        private final DoubleSummaryStatistics amounts = new DoubleSummaryStatistics();
+
+        private void add(final Transaction transaction) {
+            customerNumber = transaction.customerNumber();
+            amounts.accept(transaction.amount());
+        }
+
+        private Sum combine(final Sum other) {
+            if (customerNumber == null) {
+                customerNumber = other.customerNumber;
+            }
+            amounts.combine(other.amounts);
+            return this;
+        }
+
+        private TransactionSum toTransactionSum() {
+            return new TransactionSum(customerNumber, new BigDecimal(amounts.getSum()).setScale(2, RoundingMode.HALF_UP).doubleValue());
+        }
+    }
+
 }
@@ -0,0 +1,272 @@
+package fr.training.springbatch.tools.executor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * A {@link TaskExecutor} shared by the parallel steps (partitions, splits, multi-threaded steps), instead of a new SimpleAsyncTaskExecutor starting an
+ * unbounded number of threads in each job.
+ * <ul>
+ * <li>{@link Mode#PLATFORM} : a fixed pool of <code>poolSize</code> platform threads, the tasks waiting in a queue of <code>queueCapacity</code> tasks. When
+ * the queue is full, the submitting thread runs the task itself, which slows the producer down instead of failing the step.</li>
+ * <li>{@link Mode#VIRTUAL} (Java 21 or later) : a virtual thread per task, at most <code>poolSize</code> of them running at the same time, for the I/O bound
+ * steps (JDBC, HTTP...) where <code>poolSize</code> may be much larger than the number of processors. The tasks wait in a queue, and their virtual thread is
+ * only started when a running slot is free. On an older JVM, the platform mode is used.</li>
+ * </ul>
+ * The waiting tasks are started in submission order in both modes, except the tasks run by the submitting thread when the platform queue is full. The
+ * number of running tasks, waiting tasks and completed tasks are published as the <code>batch.executor.active</code>, <code>batch.executor.queued</code> and
+ * <code>batch.executor.completed</code> meters, in the global Micrometer registry used by Spring Batch unless another registry is set. The meters of a
+ * previous executor with the same mode are replaced, and the meters are removed when the executor is destroyed.
+ *
+ * @author Desprez
+ */
+public class ManagedTaskExecutor implements TaskExecutor, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ManagedTaskExecutor.class);
+
+    public enum Mode {
+        PLATFORM, VIRTUAL
+    }
+
+    private Mode mode = Mode.PLATFORM;
+
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+
+    private int queueCapacity = Integer.MAX_VALUE;
+
+    private String threadNamePrefix = "batch-executor-";
+
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private ExecutorService executor;
+
+    private final List<Meter> meters = new ArrayList<>();
+
+    /**
+     * Tasks of the virtual mode waiting for a running slot, in submission order.
+     */
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+
+    /**
+     * Virtual threads started and not ended (guarded by <code>pending</code>).
+     */
+    private int started;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicLong completed = new AtomicLong();
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(mode, "The mode may not be null.");
+        Assert.isTrue(poolSize > 0, "The poolSize must be greater than zero.");
+        Assert.isTrue(queueCapacity > 0, "The queueCapacity must be greater than zero.");
+
+        if (mode == Mode.VIRTUAL && Runtime.version().feature() < 21) {
+            log.warn("Virtual threads need Java 21 or later (running {}) : using a pool of {} platform threads", Runtime.version(), poolSize);
+            mode = Mode.PLATFORM;
+        }
+        if (mode == Mode.VIRTUAL) {
+            executor = newVirtualThreadPerTaskExecutor(threadNamePrefix);
+        } else {
+            final BlockingQueue<Runnable> queue = queueCapacity == Integer.MAX_VALUE ? new LinkedBlockingQueue<>() : new ArrayBlockingQueue<>(queueCapacity);
+            executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, queue, new CustomizableThreadFactory(threadNamePrefix),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        log.info("Task executor : {} mode, {} tasks at the same time", mode, poolSize);
+
+        if (meterRegistry != null) {
+            registerMeters();
+        }
+    }
+
+    private void registerMeters() {
+        final String modeTag = mode.name();
+        // the registry would return the meters of a previous executor (another application context), reading its stale counts
+        for (final String name : List.of("batch.executor.active", "batch.executor.queued", "batch.executor.pool.size", "batch.executor.completed")) {
+            meterRegistry.find(name).tag("mode", modeTag).meters().forEach(meterRegistry::remove);
+        }
+        meters.add(Gauge.builder("batch.executor.active", active, AtomicInteger::get).description("Running tasks").tag("mode", modeTag)
+                .register(meterRegistry));
+        meters.add(Gauge.builder("batch.executor.queued", queued, AtomicInteger::get).description("Tasks waiting for a thread").tag("mode", modeTag)
+                .register(meterRegistry));
+        meters.add(Gauge.builder("batch.executor.pool.size", this, ManagedTaskExecutor::getPoolSize).description("Maximum running tasks")
+                .tag("mode", modeTag).register(meterRegistry));
+        meters.add(FunctionCounter.builder("batch.executor.completed", completed, AtomicLong::get).description("Completed tasks").tag("mode", modeTag)
+                .register(meterRegistry));
+    }
+
+    private void removeMeters() {
+        for (final Meter meter : meters) {
+            // unless already replaced by the meter of another executor
+            final boolean registered = meterRegistry.find(meter.getId().getName()).tags(meter.getId().getTags()).meters().stream()
+                    .anyMatch(registeredMeter -> registeredMeter == meter);
+            if (registered) {
+                meterRegistry.remove(meter);
+            }
+        }
+        meters.clear();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        Assert.state(executor != null, "The executor is not initialized.");
+        queued.incrementAndGet();
+        if (mode == Mode.VIRTUAL) {
+            synchronized (pending) {
+                pending.add(task);
+                startPending();
+            }
+        } else {
+            executor.execute(() -> run(task));
+        }
+    }
+
+    /**
+     * Start a virtual thread for the oldest waiting tasks, as long as a running slot is free.
+     */
+    private void startPending() {
+        while (started < poolSize && !pending.isEmpty()) {
+            final Runnable task = pending.poll();
+            started++;
+            executor.execute(() -> run(task));
+        }
+    }
+
+    private void run(final Runnable task) {
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            completed.incrementAndGet();
+            if (mode == Mode.VIRTUAL) {
+                synchronized (pending) {
+                    started--;
+                    startPending();
+                }
+            }
+        }
+    }
+
+    /**
+     * <code>Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())</code>, by reflection as the project is compiled for Java 17.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor(final String prefix) throws ReflectiveOperationException {
+        final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+        final ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        final Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (meterRegistry != null) {
+            removeMeters();
+        }
+        synchronized (pending) {
+            if (!pending.isEmpty()) {
+                log.warn("{} tasks not started at shutdown", pending.size());
+                pending.clear();
+            }
+        }
+        if (executor != null) {
+            executor.shutdown();
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("{} tasks still running at shutdown", active.get());
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * @return the number of running tasks.
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * @return the number of tasks waiting for a thread (for a running slot in virtual mode).
+     */
+    public int getQueueSize() {
+        return queued.get();
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @param mode
+     *            {@link Mode#PLATFORM} (default) or {@link Mode#VIRTUAL}.
+     */
+    public void setMode(final Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * @param poolSize
+     *            the maximum number of tasks running at the same time (default the number of available processors).
+     */
+    public void setPoolSize(final int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * @param queueCapacity
+     *            the maximum number of tasks waiting for a platform thread (default unbounded).
+     */
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setThreadNamePrefix(final String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    /**
+     * @param meterRegistry
+     *            the registry of the executor meters (default the global registry, null for none).
+     */
+    public void setMeterRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+}
@@ -0,0 +1,137 @@
+package fr.training.springbatch.tools.hash;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The 64-bit <a href="https://github.com/Cyan4973/xxHash">xxHash</a> (XXH64) non cryptographic hash function, used as a content hash of a record to detect
+ * that it changed by comparing a single long instead of all its columns.
+ *
+ * @author Desprez
+ */
+public final class XxHash64 {
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    /**
+     * Separates the fields of {@link #hashFields(Object...)}, so that ("ab", "c") and ("a", "bc") don't have the same hash.
+     */
+    private static final char FIELD_SEPARATOR = '\u001F';
+
+    /**
+     * Replaces a null field of {@link #hashFields(Object...)}, so that a null and an empty field don't have the same hash.
+     */
+    private static final char NULL_FIELD = '\u0000';
+
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private XxHash64() {
+    }
+
+    /**
+     * @return the hash of the string of each field (null fields included), i.e. of the non key columns of a record.
+     */
+    public static long hashFields(final Object... fields) {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                content.append(FIELD_SEPARATOR);
+            }
+            content.append(fields[i] == null ? NULL_FIELD : fields[i]);
+        }
+        return hash(content.toString());
+    }
+
+    /**
+     * @return the hash of the UTF-8 bytes of the string, with a zero seed.
+     */
+    public static long hash(final String value) {
+        return hash(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the hash of the bytes, with a zero seed.
+     */
+    public static long hash(final byte[] data) {
+        return hash(data, 0, data.length, 0L);
+    }
+
+    /**
+     * @return the hash of <code>length</code> bytes of data from <code>offset</code>, with the given seed.
+     */
+    public static long hash(final byte[] data, final int offset, final int length, final long seed) {
+        final int end = offset + length;
+        int position = offset;
+        long hash;
+
+        if (length >= 32) {
+            long v1 = seed + PRIME1 + PRIME2;
+            long v2 = seed + PRIME2;
+            long v3 = seed;
+            long v4 = seed - PRIME1;
+            final int limit = end - 32;
+            do {
+                v1 = round(v1, (long) LONG_LE.get(data, position));
+                v2 = round(v2, (long) LONG_LE.get(data, position + 8));
+                v3 = round(v3, (long) LONG_LE.get(data, position + 16));
+                v4 = round(v4, (long) LONG_LE.get(data, position + 24));
+                position += 32;
+            } while (position <= limit);
+
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = seed + PRIME5;
+        }
+
+        hash += length;
+
+        while (position + 8 <= end) {
+            hash ^= round(0, (long) LONG_LE.get(data, position));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+            position += 8;
+        }
+        if (position + 4 <= end) {
+            hash ^= ((int) INT_LE.get(data, position) & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            position += 4;
+        }
+        while (position < end) {
+            hash ^= (data[position] & 0xFFL) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+            position++;
+        }
+
+        // final avalanche
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long round(final long accumulator, final long input) {
+        return Long.rotateLeft(accumulator + input * PRIME2, 31) * PRIME1;
+    }
+
+    private static long mergeRound(final long hash, final long value) {
+        return (hash ^ round(0, value)) * PRIME1 + PRIME4;
+    }
+
+}
@@ -0,0 +1,88 @@
+package fr.training.springbatch.tools.incrementer;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.item.database.support.DefaultDataFieldMaxValueIncrementerFactory;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link DataFieldMaxValueIncrementer} that reserves a block of <code>poolSize</code> values at each call of the delegate incrementer (pooled optimizer) :
+ * the next values are then allocated in memory, without database round trip.
+ *
+ * The delegate must be backed by a sequence whose <b>increment is the pool size</b> (ie <code>CREATE SEQUENCE my_seq INCREMENT BY 100</code>) : each value
+ * <code>v</code> of the sequence reserves the values <code>v</code> to <code>v + poolSize - 1</code>, so the values stay unique across concurrent writers
+ * (and JVMs). Values of a block not used before shutdown are lost (gaps). Thread-safe.
+ *
+ * Use {@link #forSequence(DataSource, String)} to take the pool size from the sequence itself.
+ */
+public class PooledDataFieldMaxValueIncrementer implements DataFieldMaxValueIncrementer {
+
+    private final DataFieldMaxValueIncrementer delegate;
+
+    private final int poolSize;
+
+    private long nextValue;
+
+    private long blockEnd;
+
+    /**
+     * @param delegate
+     *            the incrementer of the sequence, called once per block.
+     * @param poolSize
+     *            the number of values of a block, must be the increment of the sequence.
+     */
+    public PooledDataFieldMaxValueIncrementer(final DataFieldMaxValueIncrementer delegate, final int poolSize) {
+        Assert.notNull(delegate, "delegate must be not null");
+        Assert.isTrue(poolSize > 0, "poolSize must be greater than zero");
+        this.delegate = delegate;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * @param dataSource
+     *            the database of the sequence.
+     * @param sequenceName
+     *            the sequence, whose increment is read from <code>INFORMATION_SCHEMA.SEQUENCES</code> and used as pool size.
+     * @return an incrementer reserving blocks of the sequence increment
+     */
+    public static PooledDataFieldMaxValueIncrementer forSequence(final DataSource dataSource, final String sequenceName) throws MetaDataAccessException {
+        final Long increment;
+        try {
+            increment = new JdbcTemplate(dataSource).queryForObject("SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = ?",
+                    Long.class, sequenceName.toUpperCase());
+        } catch (final EmptyResultDataAccessException e) {
+            throw new IllegalStateException("Sequence " + sequenceName + " not found in INFORMATION_SCHEMA.SEQUENCES", e);
+        }
+        Assert.state(increment != null && increment > 0 && increment <= Integer.MAX_VALUE,
+                () -> "The increment of the sequence " + sequenceName + " must be a positive int, but is " + increment);
+        final DataFieldMaxValueIncrementer delegate = new DefaultDataFieldMaxValueIncrementerFactory(dataSource)
+                .getIncrementer(DatabaseType.fromMetaData(dataSource).name(), sequenceName);
+        return new PooledDataFieldMaxValueIncrementer(delegate, increment.intValue());
+    }
+
+    @Override
+    public synchronized long nextLongValue() throws DataAccessException {
+        if (nextValue == blockEnd) {
+            nextValue = delegate.nextLongValue();
+            blockEnd = nextValue + poolSize;
+        }
+        return nextValue++;
+    }
+
+    @Override
+    public int nextIntValue() throws DataAccessException {
+        return (int) nextLongValue();
+    }
+
+    @Override
+    public String nextStringValue() throws DataAccessException {
+        return String.valueOf(nextLongValue());
+    }
+
+}
@@ -19,6 +19,8 @@ public class OutputFileListener {
 
     private String inputKeyName = "fileName";
 
+    private String rangeKeyName = "rangeIndex";
+
     private String path = "file:./target/output/";
 
     public void setPath(final String path) {
@@ -33,6 +35,14 @@ public class OutputFileListener {
         this.inputKeyName = inputKeyName;
     }
 
+    /**
+     * @param rangeKeyName
+     *            key of the range index of a file split into several partitions, appended to the output name so that they don't overwrite each other.
+     */
+    public void setRangeKeyName(final String rangeKeyName) {
+        this.rangeKeyName = rangeKeyName;
+    }
+
     @BeforeStep
     public void createOutputNameFromInput(final StepExecution stepExecution) {
         final ExecutionContext executionContext = stepExecution.getExecutionContext();
@@ -41,8 +51,12 @@ public class OutputFileListener {
         if (executionContext.containsKey(inputKeyName)) {
             inputName = executionContext.getString(inputKeyName);
         }
+        String outputName = FilenameUtils.getBaseName(inputName);
+        if (executionContext.containsKey(rangeKeyName)) {
+            outputName += "-" + executionContext.get(rangeKeyName);
+        }
         if (!executionContext.containsKey(outputKeyName)) {
-            executionContext.putString(outputKeyName, path + FilenameUtils.getBaseName(inputName) + ".csv");
+            executionContext.putString(outputKeyName, path + outputName + ".csv");
         }
     }
 
@@ -0,0 +1,190 @@
+package fr.training.springbatch.tools.partition;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.MultiResourcePartitioner;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import fr.training.springbatch.tools.reader.ByteOffsetFlatFileItemReader;
+
+/**
+ * <p>
+ * A {@link Partitioner} that splits flat files into line-aligned byte ranges, so that a single huge file is read by several threads (typically by a
+ * {@link ByteOffsetFlatFileItemReader} in each partition) instead of one partition per file as with the {@link MultiResourcePartitioner}.
+ * </p>
+ *
+ * <p>
+ * The files get a number of ranges proportional to their size (at least one), about <code>gridSize</code> ranges in all. Each boundary is placed at an evenly
+ * spaced byte position then moved forward to the start of the next line, so only a few bytes by boundary are read, whatever the size of the files.
+ * </p>
+ *
+ * The execution context of each partition holds the keys {@link #FILE_NAME} (the resource URL, as the {@link MultiResourcePartitioner} does),
+ * {@link #START_OFFSET} and {@link #END_OFFSET}, and {@link #RANGE_INDEX} when the file is split into several ranges. The first range of a file starts at
+ * offset 0 so its reader skips the header lines itself.
+ *
+ * @author Desprez
+ */
+public class FileRangePartitioner implements Partitioner, InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FileRangePartitioner.class);
+
+    public static final String FILE_NAME = "fileName";
+
+    public static final String START_OFFSET = "startOffset";
+
+    public static final String END_OFFSET = "endOffset";
+
+    public static final String RANGE_INDEX = "rangeIndex";
+
+    private static final String PARTITION_PREFIX = "partition";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final byte LF = '\n';
+
+    private Resource[] resources = new Resource[0];
+
+    private int linesToSkip = 0;
+
+    private Charset encoding = StandardCharsets.UTF_8;
+
+    @Override
+    public Map<String, ExecutionContext> partition(final int gridSize) {
+        Assert.isTrue(gridSize > 0, "The 'gridSize' must be greater than zero");
+
+        final Map<String, ExecutionContext> result = new LinkedHashMap<>();
+        try {
+            long totalSize = 0;
+            for (final Resource resource : resources) {
+                totalSize += resource.contentLength();
+            }
+
+            for (final Resource resource : resources) {
+                Assert.state(resource.exists(), "Resource does not exist: " + resource);
+                final String fileName = resource.getURL().toExternalForm();
+                // at least one range by file, then a share of the grid proportional to the file size
+                final int rangeCount = (int) Math.max(1, totalSize == 0 ? 1 : resource.contentLength() * gridSize / totalSize);
+                final long[] boundaries = boundaries(resource, rangeCount);
+                log.debug("File {} split into {} range(s)", fileName, boundaries.length - 1);
+
+                for (int i = 0; i < boundaries.length - 1; i++) {
+                    final ExecutionContext context = new ExecutionContext();
+                    context.putString(FILE_NAME, fileName);
+                    context.putLong(START_OFFSET, boundaries[i]);
+                    context.putLong(END_OFFSET, boundaries[i + 1]);
+                    if (boundaries.length > 2) {
+                        context.putInt(RANGE_INDEX, i);
+                    }
+                    result.put(PARTITION_PREFIX + result.size(), context);
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to partition " + Arrays.toString(resources), e);
+        }
+        return result;
+    }
+
+    /**
+     * @return the offsets of the line-aligned ranges of the file, from 0 to the file size (empty ranges are dropped).
+     */
+    private long[] boundaries(final Resource resource, final int rangeCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+            long dataStart = 0;
+            for (int i = 0; i < linesToSkip && dataStart < size; i++) {
+                dataStart = nextLineStart(channel, buffer, dataStart, size);
+            }
+
+            final long[] boundaries = new long[rangeCount + 1];
+            int count = 1; // boundaries[0] = 0 : the first range holds the header lines
+            for (int i = 1; i < rangeCount; i++) {
+                final long position = dataStart + (size - dataStart) * i / rangeCount;
+                // the line started before the position belongs to the previous range
+                final long boundary = nextLineStart(channel, buffer, position - 1, size);
+                if (boundary > boundaries[count - 1] && boundary > dataStart && boundary < size) {
+                    boundaries[count++] = boundary;
+                }
+            }
+            boundaries[count++] = size;
+            return Arrays.copyOf(boundaries, count);
+        }
+    }
+
+    /**
+     * @return the offset following the next line feed found from the given position (file size if none).
+     */
+    private static long nextLineStart(final FileChannel channel, final ByteBuffer buffer, final long position, final long size) throws IOException {
+        long offset = position;
+        while (offset < size) {
+            buffer.clear();
+            final int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            final byte[] array = buffer.array();
+            for (int i = 0; i < read; i++) {
+                if (array[i] == LF) {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(resources, "The 'resources' may not be null");
+        Assert.isTrue(Arrays.equals("\n".getBytes(encoding), new byte[] { LF }), "The 'encoding' must encode line feed as a single byte");
+    }
+
+    /**
+     * @param resources
+     *            the files to split.
+     */
+    public void setResources(final Resource[] resources) {
+        this.resources = resources;
+    }
+
+    /**
+     * @param resource
+     *            the single file to split.
+     */
+    public void setResource(final Resource resource) {
+        resources = new Resource[] { resource };
+    }
+
+    /**
+     * @param linesToSkip
+     *            the number of header lines of each file, never split from the first range.
+     */
+    public void setLinesToSkip(final int linesToSkip) {
+        this.linesToSkip = linesToSkip;
+    }
+
+    /**
+     * @param encoding
+     *            the files encoding (default UTF-8).
+     */
+    public void setEncoding(final Charset encoding) {
+        this.encoding = encoding;
+    }
+
+}
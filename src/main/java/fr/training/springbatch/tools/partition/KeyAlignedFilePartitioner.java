@@ -0,0 +1,292 @@
+package fr.training.springbatch.tools.partition;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import fr.training.springbatch.tools.reader.ByteOffsetFlatFileItemReader;
+
+/**
+ * <p>
+ * A {@link Partitioner} that splits a master file and a slave file, <b>both sorted on the same key</b>, into byte ranges that can be synchronized
+ * independently (typically by a {@link ByteOffsetFlatFileItemReader} pair feeding a CompositeAggregateReader in each partition).
+ * </p>
+ *
+ * <p>
+ * The master file is sampled at <code>gridSize</code> evenly spaced byte positions to pick the boundary keys. For each boundary key, a binary search on the
+ * byte offsets of both files finds the first line holding a key greater or equal to the boundary key, so a key never spans two partitions. Only
+ * <code>O(gridSize * log(file size))</code> lines are read, whatever the size of the files.
+ * </p>
+ *
+ * The execution context of each partition holds the keys {@link #MASTER_START_OFFSET}, {@link #MASTER_END_OFFSET}, {@link #SLAVE_START_OFFSET} and
+ * {@link #SLAVE_END_OFFSET}. The first partition starts at offset 0 so its readers skip the header lines themselves.
+ *
+ * @param <K>
+ *            the type of the key shared by the master and slave files
+ *
+ * @author Desprez
+ */
+public class KeyAlignedFilePartitioner<K extends Comparable<K>> implements Partitioner, InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyAlignedFilePartitioner.class);
+
+    public static final String MASTER_START_OFFSET = "masterStartOffset";
+
+    public static final String MASTER_END_OFFSET = "masterEndOffset";
+
+    public static final String SLAVE_START_OFFSET = "slaveStartOffset";
+
+    public static final String SLAVE_END_OFFSET = "slaveEndOffset";
+
+    private static final String PARTITION_PREFIX = "partition";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final byte LF = '\n';
+
+    private static final byte CR = '\r';
+
+    private Resource masterResource;
+
+    private Function<String, K> masterKeyExtractor;
+
+    private int masterLinesToSkip = 0;
+
+    private Resource slaveResource;
+
+    private Function<String, K> slaveKeyExtractor;
+
+    private int slaveLinesToSkip = 0;
+
+    private Charset encoding = StandardCharsets.UTF_8;
+
+    @Override
+    public Map<String, ExecutionContext> partition(final int gridSize) {
+        Assert.isTrue(gridSize > 0, "The 'gridSize' must be greater than zero");
+
+        try (SortedFile master = new SortedFile(masterResource, masterLinesToSkip, masterKeyExtractor);
+                SortedFile slave = new SortedFile(slaveResource, slaveLinesToSkip, slaveKeyExtractor)) {
+
+            final Map<String, ExecutionContext> result = new LinkedHashMap<>();
+            long masterStart = 0;
+            long slaveStart = 0;
+
+            for (int i = 1; i < gridSize; i++) {
+                final long sample = master.lineStartAfter(master.dataStart + (master.size - master.dataStart) * i / gridSize);
+                if (sample >= master.size) {
+                    break;
+                }
+                final K boundaryKey = master.keyAt(sample);
+                final long masterEnd = master.firstLineWithKeyAtLeast(boundaryKey);
+                if (masterEnd <= Math.max(masterStart, master.dataStart)) {
+                    // same key as the previous boundary (or first key of the file) : nothing to split here
+                    continue;
+                }
+                final long slaveEnd = slave.firstLineWithKeyAtLeast(boundaryKey);
+                log.debug("Boundary key {} : master offset {}, slave offset {}", boundaryKey, masterEnd, slaveEnd);
+
+                result.put(PARTITION_PREFIX + result.size(), context(masterStart, masterEnd, slaveStart, slaveEnd));
+                masterStart = masterEnd;
+                slaveStart = slaveEnd;
+            }
+            result.put(PARTITION_PREFIX + result.size(), context(masterStart, master.size, slaveStart, slave.size));
+            return result;
+
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to partition " + masterResource + " and " + slaveResource, e);
+        }
+    }
+
+    private static ExecutionContext context(final long masterStart, final long masterEnd, final long slaveStart, final long slaveEnd) {
+        final ExecutionContext context = new ExecutionContext();
+        context.putLong(MASTER_START_OFFSET, masterStart);
+        context.putLong(MASTER_END_OFFSET, masterEnd);
+        context.putLong(SLAVE_START_OFFSET, slaveStart);
+        context.putLong(SLAVE_END_OFFSET, slaveEnd);
+        return context;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(masterResource, "The 'masterResource' may not be null");
+        Assert.notNull(masterKeyExtractor, "The 'masterKeyExtractor' may not be null");
+        Assert.notNull(slaveResource, "The 'slaveResource' may not be null");
+        Assert.notNull(slaveKeyExtractor, "The 'slaveKeyExtractor' may not be null");
+        Assert.isTrue(Arrays.equals("\n".getBytes(encoding), new byte[] { LF }), "The 'encoding' must encode line feed as a single byte");
+    }
+
+    /**
+     * @param masterResource
+     *            the master file (sorted on the key).
+     */
+    public void setMasterResource(final Resource masterResource) {
+        this.masterResource = masterResource;
+    }
+
+    /**
+     * @param masterKeyExtractor
+     *            {@link Function<String, K>} used to extract the key from a raw line of the master file.
+     */
+    public void setMasterKeyExtractor(final Function<String, K> masterKeyExtractor) {
+        this.masterKeyExtractor = masterKeyExtractor;
+    }
+
+    /**
+     * @param masterLinesToSkip
+     *            the number of header lines of the master file.
+     */
+    public void setMasterLinesToSkip(final int masterLinesToSkip) {
+        this.masterLinesToSkip = masterLinesToSkip;
+    }
+
+    /**
+     * @param slaveResource
+     *            the slave file (sorted on the key).
+     */
+    public void setSlaveResource(final Resource slaveResource) {
+        this.slaveResource = slaveResource;
+    }
+
+    /**
+     * @param slaveKeyExtractor
+     *            {@link Function<String, K>} used to extract the key from a raw line of the slave file.
+     */
+    public void setSlaveKeyExtractor(final Function<String, K> slaveKeyExtractor) {
+        this.slaveKeyExtractor = slaveKeyExtractor;
+    }
+
+    /**
+     * @param slaveLinesToSkip
+     *            the number of header lines of the slave file.
+     */
+    public void setSlaveLinesToSkip(final int slaveLinesToSkip) {
+        this.slaveLinesToSkip = slaveLinesToSkip;
+    }
+
+    /**
+     * @param encoding
+     *            the files encoding (default UTF-8).
+     */
+    public void setEncoding(final Charset encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Random line access to a sorted file.
+     */
+    private final class SortedFile implements Closeable {
+
+        private final FileChannel channel;
+
+        private final Function<String, K> keyExtractor;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private final long size;
+
+        /**
+         * Offset of the first line after the header lines.
+         */
+        private final long dataStart;
+
+        private SortedFile(final Resource resource, final int linesToSkip, final Function<String, K> keyExtractor) throws IOException {
+            channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+            this.keyExtractor = keyExtractor;
+            size = channel.size();
+            long offset = 0;
+            for (int i = 0; i < linesToSkip && offset < size; i++) {
+                offset = nextLineStart(offset);
+            }
+            dataStart = offset;
+        }
+
+        /**
+         * Binary search of the first line whose key is greater or equal to the given key.
+         *
+         * @return the offset of this line, or the file size if all the keys are lower.
+         */
+        private long firstLineWithKeyAtLeast(final K key) throws IOException {
+            long low = dataStart;
+            long high = size;
+            while (low < high) {
+                final long middle = low + (high - low) / 2;
+                final long lineStart = lineStartAfter(middle);
+                if (lineStart < size && keyAt(lineStart).compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return lineStartAfter(low);
+        }
+
+        /**
+         * @return the offset of the first line starting at or after the given position (file size if none).
+         */
+        private long lineStartAfter(final long position) throws IOException {
+            if (position <= dataStart) {
+                return dataStart;
+            }
+            return nextLineStart(position - 1);
+        }
+
+        /**
+         * @return the offset following the next line feed found from the given position (file size if none).
+         */
+        private long nextLineStart(final long position) throws IOException {
+            long offset = position;
+            while (offset < size) {
+                buffer.clear();
+                final int read = channel.read(buffer, offset);
+                if (read <= 0) {
+                    break;
+                }
+                final byte[] array = buffer.array();
+                for (int i = 0; i < read; i++) {
+                    if (array[i] == LF) {
+                        return offset + i + 1;
+                    }
+                }
+                offset += read;
+            }
+            return size;
+        }
+
+        private K keyAt(final long lineStart) throws IOException {
+            final long lineEnd = nextLineStart(lineStart);
+            final ByteBuffer line = ByteBuffer.allocate((int) (lineEnd - lineStart));
+            while (line.hasRemaining() && channel.read(line, lineStart + line.position()) > 0) {
+                // read the whole line
+            }
+            int length = line.position();
+            final byte[] bytes = line.array();
+            while (length > 0 && (bytes[length - 1] == LF || bytes[length - 1] == CR)) {
+                length--;
+            }
+            return keyExtractor.apply(new String(bytes, 0, length, encoding));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+}
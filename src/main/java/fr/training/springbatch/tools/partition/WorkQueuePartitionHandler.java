@@ -0,0 +1,138 @@
+package fr.training.springbatch.tools.partition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.support.AbstractPartitionHandler;
+import org.springframework.batch.core.step.StepHolder;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link PartitionHandler} that asks the partitioner for many small partitions (<code>partitionsPerThread</code> by thread) and runs them with a fixed
+ * number of worker threads pulling the partitions from a shared queue : a fast worker takes the next partition as soon as it is done, so a slow partition
+ * doesn't leave the other threads idle until the end of the manager step.
+ * <p>
+ * The grid size given to the partitioner is <code>threadCount * partitionsPerThread</code> (the partitioners that ignore the grid size, like the
+ * MultiResourcePartitioner, work as well).
+ * </p>
+ *
+ * @author Desprez
+ */
+public class WorkQueuePartitionHandler extends AbstractPartitionHandler implements StepHolder, InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkQueuePartitionHandler.class);
+
+    private Step step;
+
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+
+    private int partitionsPerThread = 10;
+
+    private TaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("partition-worker-");
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(step, "A Step must be provided.");
+        Assert.isTrue(threadCount > 0, "The threadCount must be greater than zero.");
+        Assert.isTrue(partitionsPerThread > 0, "The partitionsPerThread must be greater than zero.");
+        setGridSize(threadCount * partitionsPerThread);
+    }
+
+    @Override
+    protected Set<StepExecution> doHandle(final StepExecution managerStepExecution, final Set<StepExecution> partitionStepExecutions) throws Exception {
+        final List<StepExecution> partitions = new ArrayList<>(partitionStepExecutions);
+        partitions.sort(Comparator.comparing(StepExecution::getStepName));
+        final Queue<StepExecution> queue = new ConcurrentLinkedQueue<>(partitions);
+        final Set<StepExecution> result = ConcurrentHashMap.newKeySet();
+
+        final int workers = Math.min(threadCount, partitions.size());
+        log.info("{} partitions of {} run by {} workers", partitions.size(), step.getName(), workers);
+        final List<FutureTask<Void>> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            final FutureTask<Void> task = new FutureTask<>(() -> {
+                StepExecution stepExecution;
+                while ((stepExecution = queue.poll()) != null) {
+                    execute(stepExecution);
+                    result.add(stepExecution);
+                }
+                return null;
+            });
+            tasks.add(task);
+            taskExecutor.execute(task);
+        }
+        for (final FutureTask<Void> task : tasks) {
+            task.get();
+        }
+        return result;
+    }
+
+    private void execute(final StepExecution stepExecution) {
+        try {
+            step.execute(stepExecution);
+        } catch (final JobInterruptedException e) {
+            stepExecution.setStatus(BatchStatus.STOPPED);
+            stepExecution.setExitStatus(ExitStatus.STOPPED.addExitDescription(e));
+        } catch (final RuntimeException e) {
+            // the other partitions keep running, the manager step will fail
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(e));
+            stepExecution.addFailureException(e);
+        }
+    }
+
+    /**
+     * @param step
+     *            the {@link Step} executed for each partition.
+     */
+    public void setStep(final Step step) {
+        this.step = step;
+    }
+
+    @Override
+    public Step getStep() {
+        return step;
+    }
+
+    /**
+     * @param threadCount
+     *            the number of worker threads (default the number of available processors).
+     */
+    public void setThreadCount(final int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * @param partitionsPerThread
+     *            the number of partitions asked to the partitioner by worker thread (default 10).
+     */
+    public void setPartitionsPerThread(final int partitionsPerThread) {
+        this.partitionsPerThread = partitionsPerThread;
+    }
+
+    /**
+     * @param taskExecutor
+     *            the {@link TaskExecutor} that runs the worker threads, it must be able to run <code>threadCount</code> tasks concurrently (default a
+     *            {@link SimpleAsyncTaskExecutor}).
+     */
+    public void setTaskExecutor(final TaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+}
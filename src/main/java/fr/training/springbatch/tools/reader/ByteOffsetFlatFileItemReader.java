@@ -0,0 +1,299 @@
+package fr.training.springbatch.tools.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+/**
+ * <p>
+ * A restartable flat file {@link ItemReader} that stores the <b>byte offset</b> of the last committed record in the {@link ExecutionContext}, in addition
+ * to the usual read count.
+ * </p>
+ *
+ * <p>
+ * On restart, the {@link FlatFileItemReader} reads (and the synchro readers even parse) every line before the saved line count. This reader seeks straight
+ * to the saved offset instead, so a restart costs the same whatever the size of the already processed part of the file.
+ * </p>
+ *
+ * <p>
+ * The reader can also be restricted to a byte range of the file (see {@link #setStartOffset(long)} and {@link #setEndOffset(long)}), so that several
+ * readers can process the same file in parallel partitions : a line belongs to the range where it starts, so adjacent ranges read every line exactly once
+ * even if their boundaries cut through a line. The header lines are only skipped by the range starting at offset 0.
+ * </p>
+ *
+ * <p>
+ * The file encoding must encode the line feed as a single <code>0x0A</code> byte (UTF-8, ISO-8859-x, windows-125x...). Lines may end with
+ * <code>\n</code> or <code>\r\n</code>.
+ * </p>
+ *
+ * <p>
+ * <b>not</b> thread-safe.
+ * </p>
+ *
+ * @param <T>
+ *            The Item Type
+ *
+ * @author Desprez
+ */
+public class ByteOffsetFlatFileItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ByteOffsetFlatFileItemReader.class);
+
+    private static final String BYTE_OFFSET = "byte.offset";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte LF = '\n';
+
+    private static final byte CR = '\r';
+
+    private Resource resource;
+
+    private LineMapper<T> lineMapper;
+
+    private int linesToSkip = 0;
+
+    private Charset encoding = StandardCharsets.UTF_8;
+
+    private long startOffset = 0;
+
+    private long endOffset = Long.MAX_VALUE;
+
+    private FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private byte[] lineBytes = new byte[256];
+
+    /**
+     * Offset of the first byte not yet consumed as part of a line.
+     */
+    private long position;
+
+    private int lineCount;
+
+    /**
+     * Offset found in the {@link ExecutionContext} on restart (-1 if none).
+     */
+    private long restartOffset = -1;
+
+    public ByteOffsetFlatFileItemReader() {
+        setName(getClass().getSimpleName());
+    }
+
+    @Override
+    public void open(final ExecutionContext executionContext) throws ItemStreamException {
+        final String offsetKey = getExecutionContextKey(BYTE_OFFSET);
+        restartOffset = isSaveState() && executionContext.containsKey(offsetKey) ? executionContext.getLong(offsetKey) : -1;
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(final ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(BYTE_OFFSET), position);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        Assert.state(resource.exists(), () -> "Input resource must exist: " + resource);
+        channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+        if (startOffset > 0) {
+            // the line cut by the start offset (if any) belongs to the previous range
+            seek(startOffset - 1);
+            readLine();
+            lineCount = 0;
+            return;
+        }
+        seek(startOffset);
+        for (int i = 0; i < linesToSkip; i++) {
+            if (readLine() == null) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        if (position >= endOffset) {
+            return null;
+        }
+        final String line = readLine();
+        if (line == null) {
+            return null;
+        }
+        try {
+            return lineMapper.mapLine(line, lineCount);
+        } catch (final Exception e) {
+            throw new FlatFileParseException("Parsing error at line: " + lineCount + " in resource=[" + resource.getDescription() + "], input=[" + line + "]",
+                    e, line, lineCount);
+        }
+    }
+
+    /**
+     * Seek to the saved byte offset if there is one, otherwise skip the lines without mapping them.
+     */
+    @Override
+    protected void jumpToItem(final int itemIndex) throws Exception {
+        if (restartOffset >= 0) {
+            log.debug("Restart {} at byte offset {} (item {})", resource, restartOffset, itemIndex);
+            seek(restartOffset);
+            lineCount = (startOffset > 0 ? 0 : linesToSkip) + itemIndex;
+            return;
+        }
+        for (int i = 0; i < itemIndex; i++) {
+            if (readLine() == null) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        lineCount = 0;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Position the reader on the given byte offset of the file.
+     */
+    protected void seek(final long offset) throws IOException {
+        channel.position(offset);
+        position = offset;
+        buffer.clear().flip();
+    }
+
+    /**
+     * @return the offset of the first byte not yet consumed as part of a line.
+     */
+    protected long getPosition() {
+        return position;
+    }
+
+    /**
+     * Read the next line, updating the byte position.
+     *
+     * @return the line without its line terminator, or null at the end of the file.
+     */
+    protected String readLine() throws IOException {
+        int length = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                final int read = channel.read(buffer);
+                buffer.flip();
+                if (read <= 0) {
+                    // end of file : last line without line terminator
+                    return length == 0 ? null : newLine(length);
+                }
+            }
+            final byte[] array = buffer.array();
+            final int start = buffer.position();
+            final int limit = buffer.limit();
+            int i = start;
+            while (i < limit && array[i] != LF) {
+                i++;
+            }
+            final int chunk = i - start;
+            if (length + chunk > lineBytes.length) {
+                lineBytes = Arrays.copyOf(lineBytes, Math.max(lineBytes.length * 2, length + chunk));
+            }
+            System.arraycopy(array, start, lineBytes, length, chunk);
+            length += chunk;
+            position += chunk;
+            if (i < limit) {
+                // line feed found : consume it
+                buffer.position(i + 1);
+                position++;
+                return newLine(length);
+            }
+            buffer.position(limit);
+        }
+    }
+
+    private String newLine(int length) {
+        lineCount++;
+        if (length > 0 && lineBytes[length - 1] == CR) {
+            length--;
+        }
+        return new String(lineBytes, 0, length, encoding);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(resource, "The 'resource' may not be null");
+        Assert.notNull(lineMapper, "The 'lineMapper' may not be null");
+        Assert.isTrue(startOffset >= 0 && startOffset <= endOffset, "The 'startOffset' must be positive and lower than the 'endOffset'");
+        Assert.isTrue(Arrays.equals("\n".getBytes(encoding), new byte[] { LF }), "The 'encoding' must encode line feed as a single byte");
+    }
+
+    /**
+     * @param resource
+     *            the input file (must be a file system resource since the reader seeks into it).
+     */
+    public void setResource(final Resource resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * @param lineMapper
+     *            the {@link LineMapper} used to map each line to an item.
+     */
+    public void setLineMapper(final LineMapper<T> lineMapper) {
+        this.lineMapper = lineMapper;
+    }
+
+    /**
+     * @param linesToSkip
+     *            the number of header lines to skip at the beginning of the file.
+     */
+    public void setLinesToSkip(final int linesToSkip) {
+        this.linesToSkip = linesToSkip;
+    }
+
+    /**
+     * @param encoding
+     *            the file encoding (default UTF-8).
+     */
+    public void setEncoding(final Charset encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * @param startOffset
+     *            the start of the range : the first line read is the first one starting at or after this offset (default 0).
+     */
+    public void setStartOffset(final long startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    /**
+     * @param endOffset
+     *            the end of the range (exclusive) : the last line read is the last one starting before this offset (default end of file).
+     */
+    public void setEndOffset(final long endOffset) {
+        this.endOffset = endOffset;
+    }
+
+}
@@ -0,0 +1,152 @@
+package fr.training.springbatch.tools.reader;
+
+import java.nio.charset.Charset;
+
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.mapping.RecordFieldSetMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+/**
+ * A builder for the {@link ByteOffsetFlatFileItemReader}, mimicking the delimited part of the FlatFileItemReaderBuilder.
+ *
+ * @param <T>
+ *            The Item Type
+ *
+ * @author Desprez
+ */
+public class ByteOffsetFlatFileItemReaderBuilder<T> {
+
+    private String name;
+
+    private Resource resource;
+
+    private Charset encoding;
+
+    private int linesToSkip = 0;
+
+    private boolean saveState = true;
+
+    private long startOffset = 0;
+
+    private long endOffset = Long.MAX_VALUE;
+
+    private LineMapper<T> lineMapper;
+
+    private String delimiter = DelimitedLineTokenizer.DELIMITER_COMMA;
+
+    private String[] names;
+
+    private FieldSetMapper<T> fieldSetMapper;
+
+    private Class<? extends T> targetType;
+
+    public ByteOffsetFlatFileItemReaderBuilder<T> name(final String name) {
+        this.name = name;
+        return this;
+    }
+
+    public ByteOffsetFlatFileItemReaderBuilder<T> resource(final Resource resource) {
+        this.resource = resource;
+        return this;
+    }
+
+    public ByteOffsetFlatFileItemReaderBuilder<T> encoding(final Charset encoding) {
+        this.encoding = encoding;
+        return this;
+    }
+
+    public ByteOffsetFlatFileItemReaderBuilder<T> linesToSkip(final int linesToSkip) {
+        this.linesToSkip = linesToSkip;
+        return this;
+    }
+
+    public ByteOffsetFlatFileItemReaderBuilder<T> saveState(final boolean saveState) {
+        this.saveState = saveState;
+        return this;
+    }
+
+    /**
+     * Restrict the reader to the lines starting in [startOffset, endOffset[ (the offsets may cut through a line).
+     */
+    public ByteOffsetFlatFileItemReaderBuilder<T> range(final long startOffset, final long endOffset) {
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        return this;
+    }
+
+    /**
+     * Use a custom {@link LineMapper} (the delimiter, names, fieldSetMapper and targetType are then ignored).
+     */
+    public ByteOffsetFlatFileItemReaderBuilder<T> lineMapper(final LineMapper<T> lineMapper) {
+        this.lineMapper = lineMapper;
+        return this;
+    }
+
+    public ByteOffsetFlatFileItemReaderBuilder<T> delimiter(final String delimiter) {
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    public ByteOffsetFlatFileItemReaderBuilder<T> names(final String... names) {
+        this.names = names;
+        return this;
+    }
+
+    public ByteOffsetFlatFileItemReaderBuilder<T> fieldSetMapper(final FieldSetMapper<T> fieldSetMapper) {
+        this.fieldSetMapper = fieldSetMapper;
+        return this;
+    }
+
+    /**
+     * Map fields on a java bean or a record (like the FlatFileItemReaderBuilder does).
+     */
+    public ByteOffsetFlatFileItemReaderBuilder<T> targetType(final Class<? extends T> targetType) {
+        this.targetType = targetType;
+        return this;
+    }
+
+    public ByteOffsetFlatFileItemReader<T> build() {
+        Assert.hasText(name, "A name is required when saveState is set to true");
+
+        final ByteOffsetFlatFileItemReader<T> reader = new ByteOffsetFlatFileItemReader<>();
+        reader.setName(name);
+        reader.setResource(resource);
+        reader.setLinesToSkip(linesToSkip);
+        reader.setSaveState(saveState);
+        reader.setStartOffset(startOffset);
+        reader.setEndOffset(endOffset);
+        if (encoding != null) {
+            reader.setEncoding(encoding);
+        }
+        reader.setLineMapper(lineMapper != null ? lineMapper : delimitedLineMapper());
+        return reader;
+    }
+
+    @SuppressWarnings("unchecked")
+    private LineMapper<T> delimitedLineMapper() {
+        Assert.notNull(names, "The 'names' are required when no lineMapper is provided");
+        Assert.state(fieldSetMapper != null || targetType != null, "Either a fieldSetMapper or a targetType is required");
+
+        final DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(delimiter);
+        tokenizer.setNames(names);
+
+        final DefaultLineMapper<T> mapper = new DefaultLineMapper<>();
+        mapper.setLineTokenizer(tokenizer);
+        if (fieldSetMapper != null) {
+            mapper.setFieldSetMapper(fieldSetMapper);
+        } else if (targetType.isRecord()) {
+            mapper.setFieldSetMapper(new RecordFieldSetMapper<>((Class<T>) targetType));
+        } else {
+            final BeanWrapperFieldSetMapper<T> beanMapper = new BeanWrapperFieldSetMapper<>();
+            beanMapper.setTargetType(targetType);
+            mapper.setFieldSetMapper(beanMapper);
+        }
+        return mapper;
+    }
+
+}
@@ -0,0 +1,247 @@
+package fr.training.springbatch.tools.staging;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ReaderNotOpenException;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Thread-safe database {@link ItemReader} implementing the process indicator pattern, that lets several workers (threads, partitions or JVMs) drain the same
+ * staging records : each worker claims blocks of <code>claimSize</code> NEW records by tagging them with its worker id and a claim expiry date, in its own
+ * transaction, so the other workers skip them.
+ * <p>
+ * On PostgreSQL the candidates are locked with <code>FOR UPDATE SKIP LOCKED</code> (no contention between workers). Elsewhere the claim is optimistic : the
+ * candidates are tagged only if they are still unclaimed and the worker then reads back the records it actually won.
+ * </p>
+ * <p>
+ * The claim of a crashed worker expires after <code>claimTimeout</code>, its records are then claimed again by the other workers (the expiry date uses the JVM
+ * clock, so the timeout must be large against the clock skew between the workers). When its step ends, a worker releases its claimed records not processed.
+ * Use together with a {@link ProcessIndicatorItemWriter} or a {@link StagingItemProcessor} : the record is marked processed only if it is still NEW, so a
+ * record processed twice after an expiry fails the second chunk.
+ * </p>
+ */
+public class ClaimingStagingItemReader<T> implements ItemReader<ProcessIndicatorItemWrapper<T>>, StepExecutionListener, InitializingBean {
+
+    private static Log logger = LogFactory.getLog(ClaimingStagingItemReader.class);
+
+    private static final String CLAIMABLE = "JOB_ID=:jobId AND PROCESSED=:new AND (CLAIMED_UNTIL IS NULL OR CLAIMED_UNTIL<:now)";
+
+    private final Object lock = new Object();
+
+    private volatile boolean initialized;
+
+    private final Queue<ProcessIndicatorItemWrapper<T>> claimed = new ConcurrentLinkedQueue<>();
+
+    private DataSource dataSource;
+
+    private NamedParameterJdbcOperations jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private PlatformTransactionManager transactionManager;
+
+    private StagingItemCodec<? extends T> codec = new SerializationStagingItemCodec<>();
+
+    private String workerId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    private Long jobId;
+
+    private long currentJobId;
+
+    private int claimSize = 100;
+
+    private Duration claimTimeout = Duration.ofMinutes(10);
+
+    private Boolean skipLocked;
+
+    private volatile boolean exhausted;
+
+    public void setDataSource(final DataSource dataSource) {
+        this.dataSource = dataSource;
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * @param transactionManager
+     *            the transaction manager of the claims, run in their own transaction (default a {@link DataSourceTransactionManager} of the data source).
+     */
+    public void setTransactionManager(final PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * @param codec
+     *            the {@link StagingItemCodec} of the payloads, the one of the {@link StagingItemWriter} (default java serialization).
+     */
+    public void setCodec(final StagingItemCodec<? extends T> codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * @param workerId
+     *            the tag of the records claimed by this reader, unique among the workers (default the JVM name and a random suffix).
+     */
+    public void setWorkerId(final String workerId) {
+        this.workerId = workerId;
+    }
+
+    /**
+     * @param jobId
+     *            the id of the job instance that staged the records (default the job instance of the step).
+     */
+    public void setJobId(final Long jobId) {
+        this.jobId = jobId;
+    }
+
+    /**
+     * @param claimSize
+     *            the number of records claimed at a time (default 100).
+     */
+    public void setClaimSize(final int claimSize) {
+        this.claimSize = claimSize;
+    }
+
+    /**
+     * @param claimTimeout
+     *            the time after which the records claimed by a worker can be claimed by another one (default 10 minutes).
+     */
+    public void setClaimTimeout(final Duration claimTimeout) {
+        this.claimTimeout = claimTimeout;
+    }
+
+    /**
+     * @param skipLocked
+     *            true to lock the candidates with <code>FOR UPDATE SKIP LOCKED</code> (default true on PostgreSQL only).
+     */
+    public void setSkipLocked(final Boolean skipLocked) {
+        this.skipLocked = skipLocked;
+    }
+
+    @Override
+    public final void afterPropertiesSet() throws MetaDataAccessException {
+        Assert.notNull(jdbcTemplate, "You must provide a DataSource.");
+        Assert.hasText(workerId, "The workerId must not be empty.");
+        Assert.isTrue(claimSize > 0, "The claimSize must be greater than zero.");
+        Assert.isTrue(claimTimeout != null && !claimTimeout.isNegative() && !claimTimeout.isZero(), "The claimTimeout must be positive.");
+        transactionTemplate = new TransactionTemplate(transactionManager != null ? transactionManager : new DataSourceTransactionManager(dataSource));
+        // the claims must be visible to the other workers before the end of the chunk
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (skipLocked == null) {
+            skipLocked = DatabaseType.fromMetaData(dataSource) == DatabaseType.POSTGRES;
+        }
+    }
+
+    @Nullable
+    @Override
+    public ProcessIndicatorItemWrapper<T> read() {
+        if (!initialized) {
+            throw new ReaderNotOpenException("Reader must be open before it can be used.");
+        }
+        ProcessIndicatorItemWrapper<T> item = claimed.poll();
+        if (item != null) {
+            return item;
+        }
+        synchronized (lock) {
+            item = claimed.poll();
+            while (item == null && !exhausted) {
+                exhausted = !transactionTemplate.execute(status -> claim());
+                item = claimed.poll();
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Claim the next block of records.
+     *
+     * @return false if there are no more records to claim.
+     */
+    private boolean claim() {
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        final Timestamp until = new Timestamp(now.getTime() + claimTimeout.toMillis());
+        final MapSqlParameterSource parameters = new MapSqlParameterSource("jobId", currentJobId) //
+                .addValue("new", StagingItemWriter.NEW)
+                .addValue("now", now)
+                .addValue("workerId", workerId)
+                .addValue("until", until);
+
+        final List<ProcessIndicatorItemWrapper<T>> items = new ArrayList<>(claimSize);
+        if (skipLocked) {
+            jdbcTemplate.query("SELECT ID, VALUE_ FROM BATCH_STAGING WHERE " + CLAIMABLE + " ORDER BY ID FETCH FIRST " + claimSize
+                    + " ROWS ONLY FOR UPDATE SKIP LOCKED", parameters, rs -> {
+                        items.add(new ProcessIndicatorItemWrapper<>(rs.getLong(1), codec.decode(rs.getBytes(2))));
+                    });
+            if (items.isEmpty()) {
+                return false;
+            }
+            jdbcTemplate.update("UPDATE BATCH_STAGING SET CLAIMED_BY=:workerId, CLAIMED_UNTIL=:until WHERE ID IN (:ids)",
+                    parameters.addValue("ids", items.stream().map(ProcessIndicatorItemWrapper::getId).toList()));
+        } else {
+            final List<Long> candidates = jdbcTemplate.queryForList(
+                    "SELECT ID FROM BATCH_STAGING WHERE " + CLAIMABLE + " ORDER BY ID FETCH FIRST " + claimSize + " ROWS ONLY", parameters, Long.class);
+            if (candidates.isEmpty()) {
+                return false;
+            }
+            parameters.addValue("ids", candidates);
+            // only the candidates still unclaimed are won, the (worker, until) pair identifies this claim
+            jdbcTemplate.update("UPDATE BATCH_STAGING SET CLAIMED_BY=:workerId, CLAIMED_UNTIL=:until WHERE ID IN (:ids) AND " + CLAIMABLE, parameters);
+            jdbcTemplate.query("SELECT ID, VALUE_ FROM BATCH_STAGING WHERE ID IN (:ids) AND CLAIMED_BY=:workerId AND CLAIMED_UNTIL=:until ORDER BY ID",
+                    parameters, rs -> {
+                        items.add(new ProcessIndicatorItemWrapper<>(rs.getLong(1), codec.decode(rs.getBytes(2))));
+                    });
+        }
+        logger.debug("Worker " + workerId + " claimed " + items.size() + " staging records.");
+        claimed.addAll(items);
+        return true;
+    }
+
+    @Override
+    public void beforeStep(final StepExecution stepExecution) {
+        currentJobId = jobId != null ? jobId : stepExecution.getJobExecution().getJobId();
+        claimed.clear();
+        exhausted = false;
+        initialized = true;
+    }
+
+    @Nullable
+    @Override
+    public ExitStatus afterStep(final StepExecution stepExecution) {
+        initialized = false;
+        claimed.clear();
+        // make the records claimed but not processed (failed step) available to the other workers right now
+        final int released = transactionTemplate.execute(status -> jdbcTemplate.update(
+                "UPDATE BATCH_STAGING SET CLAIMED_BY=NULL, CLAIMED_UNTIL=NULL WHERE JOB_ID=:jobId AND CLAIMED_BY=:workerId AND PROCESSED=:new",
+                new MapSqlParameterSource("jobId", currentJobId).addValue("workerId", workerId).addValue("new", StagingItemWriter.NEW)));
+        if (released > 0) {
+            logger.info("Worker " + workerId + " released " + released + " staging records.");
+        }
+        return null;
+    }
+
+}
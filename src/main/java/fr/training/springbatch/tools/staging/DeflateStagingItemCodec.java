@@ -0,0 +1,79 @@
+package fr.training.springbatch.tools.staging;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.util.Assert;
+
+/**
+ * Decorator that compresses the payload of another codec with Deflate. Worth it for large items (long texts, nested collections), not for small records
+ * whose compressed form may be larger than the raw one.
+ *
+ * @param <T>
+ *            item type
+ */
+public class DeflateStagingItemCodec<T> implements StagingItemCodec<T> {
+
+    private final StagingItemCodec<T> delegate;
+
+    private final int level;
+
+    public DeflateStagingItemCodec(final StagingItemCodec<T> delegate) {
+        this(delegate, Deflater.BEST_SPEED);
+    }
+
+    /**
+     * @param delegate
+     *            the codec of the uncompressed payload
+     * @param level
+     *            the compression level (0-9)
+     */
+    public DeflateStagingItemCodec(final StagingItemCodec<T> delegate, final int level) {
+        Assert.notNull(delegate, "delegate must be not null");
+        this.delegate = delegate;
+        this.level = level;
+    }
+
+    @Override
+    public byte[] encode(final T item) {
+        final byte[] raw = delegate.encode(item);
+        final Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(raw.length / 2 + 16);
+            final byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public T decode(final byte[] payload) {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(payload.length * 3);
+            final byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                final int length = inflater.inflate(buffer);
+                if (length == 0 && inflater.needsInput()) {
+                    throw new IllegalArgumentException("Truncated staging payload");
+                }
+                output.write(buffer, 0, length);
+            }
+            return delegate.decode(output.toByteArray());
+        } catch (final DataFormatException e) {
+            throw new IllegalArgumentException("Invalid compressed staging payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
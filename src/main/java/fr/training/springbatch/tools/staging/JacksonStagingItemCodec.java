@@ -0,0 +1,56 @@
+package fr.training.springbatch.tools.staging;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * JSON codec : the payload is readable and doesn't depend on the java class, but holds the field names of each item.
+ *
+ * The default {@link ObjectMapper} registers the Jackson modules found on the classpath (ie jackson-datatype-jsr310 for the java.time fields).
+ *
+ * @param <T>
+ *            item type
+ */
+public class JacksonStagingItemCodec<T> implements StagingItemCodec<T> {
+
+    private final ObjectReader reader;
+
+    private final ObjectWriter writer;
+
+    public JacksonStagingItemCodec(final Class<T> type) {
+        this(type, new ObjectMapper().findAndRegisterModules());
+    }
+
+    public JacksonStagingItemCodec(final Class<T> type, final ObjectMapper objectMapper) {
+        Assert.notNull(type, "type must be not null");
+        Assert.notNull(objectMapper, "objectMapper must be not null");
+        reader = objectMapper.readerFor(type);
+        writer = objectMapper.writerFor(type);
+    }
+
+    @Override
+    public byte[] encode(final T item) {
+        try {
+            return writer.writeValueAsBytes(item);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to encode " + item, e);
+        }
+    }
+
+    @Override
+    public T decode(final byte[] payload) {
+        try {
+            return reader.readValue(payload);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to decode the staging payload", e);
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package fr.training.springbatch.tools.staging;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * Chunk-scoped alternative to the {@link StagingItemProcessor} : marks all the input rows of the chunk as 'processed' with a single update, then writes the
+ * unwrapped items with the delegate writer, in the same transaction.
+ *
+ * If the number of updated rows isn't the number of items of the chunk (rows updated concurrently), the chunk fails with an
+ * {@link OptimisticLockingFailureException}.
+ *
+ * @param <T>
+ *            item type
+ *
+ * @see StagingItemReader
+ * @see ProcessIndicatorItemWrapper
+ */
+public class ProcessIndicatorItemWriter<T> implements ItemWriter<ProcessIndicatorItemWrapper<T>>, InitializingBean {
+
+    private NamedParameterJdbcOperations jdbcTemplate;
+
+    private ItemWriter<? super T> delegate;
+
+    public void setDataSource(final DataSource dataSource) {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * @param delegate
+     *            the {@link ItemWriter} of the unwrapped items.
+     */
+    public void setDelegate(final ItemWriter<? super T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(jdbcTemplate, "You must provide a DataSource.");
+        Assert.notNull(delegate, "You must provide a delegate ItemWriter.");
+    }
+
+    @Override
+    public void write(final @NonNull Chunk<? extends ProcessIndicatorItemWrapper<T>> chunk) throws Exception {
+        final Set<Long> ids = new LinkedHashSet<>(chunk.size() * 2);
+        final List<T> items = new ArrayList<>(chunk.size());
+        for (final ProcessIndicatorItemWrapper<T> wrapper : chunk) {
+            ids.add(wrapper.getId());
+            items.add(wrapper.getItem());
+        }
+        if (!ids.isEmpty()) {
+            final int count = jdbcTemplate.update("UPDATE BATCH_STAGING SET PROCESSED=:done WHERE ID IN (:ids) AND PROCESSED=:new",
+                    Map.of("done", StagingItemWriter.DONE, "ids", ids, "new", StagingItemWriter.NEW));
+            if (count != ids.size()) {
+                throw new OptimisticLockingFailureException("The staging records with ID in " + ids
+                        + " were updated concurrently when trying to mark as complete (updated " + count + " records instead of " + ids.size() + ").");
+            }
+        }
+        delegate.write(new Chunk<>(items));
+    }
+
+}
@@ -0,0 +1,255 @@
+package fr.training.springbatch.tools.staging;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.springframework.util.Assert;
+
+/**
+ * Compact binary codec for records : the schema is given by the record components, so the payload holds only the values, in the components order (a
+ * <code>Transaction</code> takes less than 40 bytes instead of more than 350 with the java serialization).
+ * <p>
+ * Supported component types : primitives and their wrappers, String, BigDecimal, LocalDate, LocalDateTime and enums. A non primitive component is preceded by
+ * a null flag. The payload doesn't hold any version : drain the staging table before changing the record components.
+ * </p>
+ *
+ * @param <T>
+ *            record type
+ */
+public class RecordStagingItemCodec<T extends Record> implements StagingItemCodec<T> {
+
+    private final Method[] accessors;
+
+    private final ValueCodec[] codecs;
+
+    private final Constructor<T> constructor;
+
+    public RecordStagingItemCodec(final Class<T> type) {
+        Assert.isTrue(type != null && type.isRecord(), "type must be a record class");
+        final RecordComponent[] components = type.getRecordComponents();
+        accessors = new Method[components.length];
+        codecs = new ValueCodec[components.length];
+        final Class<?>[] parameterTypes = new Class<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            accessors[i] = components[i].getAccessor();
+            accessors[i].setAccessible(true);
+            parameterTypes[i] = components[i].getType();
+            codecs[i] = codecOf(parameterTypes[i]);
+            final RecordComponent component = components[i];
+            Assert.notNull(codecs[i], () -> "Unsupported type " + component.getType().getName() + " of " + type.getName() + "." + component.getName());
+        }
+        try {
+            constructor = type.getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+        } catch (final NoSuchMethodException e) {
+            throw new IllegalArgumentException("No canonical constructor for " + type.getName(), e);
+        }
+    }
+
+    @Override
+    public byte[] encode(final T item) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        final DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            for (int i = 0; i < accessors.length; i++) {
+                codecs[i].write(output, accessors[i].invoke(item));
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (final IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Unable to encode " + item, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public T decode(final byte[] payload) {
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        final Object[] values = new Object[codecs.length];
+        try {
+            for (int i = 0; i < codecs.length; i++) {
+                values[i] = codecs[i].read(input);
+            }
+            return constructor.newInstance(values);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to decode the staging payload", e);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unable to decode the staging payload", e);
+        }
+    }
+
+    /**
+     * Binary form of a value.
+     */
+    private interface ValueCodec {
+
+        void write(DataOutput output, Object value) throws IOException;
+
+        Object read(DataInput input) throws IOException;
+    }
+
+    /**
+     * Null flag before the value of a nullable type.
+     */
+    private static ValueCodec nullable(final ValueCodec codec) {
+        return new ValueCodec() {
+
+            @Override
+            public void write(final DataOutput output, final Object value) throws IOException {
+                output.writeBoolean(value != null);
+                if (value != null) {
+                    codec.write(output, value);
+                }
+            }
+
+            @Override
+            public Object read(final DataInput input) throws IOException {
+                return input.readBoolean() ? codec.read(input) : null;
+            }
+        };
+    }
+
+    private static ValueCodec codec(final Writer writer, final Reader reader) {
+        return new ValueCodec() {
+
+            @Override
+            public void write(final DataOutput output, final Object value) throws IOException {
+                writer.write(output, value);
+            }
+
+            @Override
+            public Object read(final DataInput input) throws IOException {
+                return reader.read(input);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutput output, Object value) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        Object read(DataInput input) throws IOException;
+    }
+
+    private static final ValueCodec LONG = codec((out, value) -> out.writeLong((Long) value), DataInput::readLong);
+
+    private static final ValueCodec INT = codec((out, value) -> out.writeInt((Integer) value), DataInput::readInt);
+
+    private static final ValueCodec SHORT = codec((out, value) -> out.writeShort((Short) value), DataInput::readShort);
+
+    private static final ValueCodec BYTE = codec((out, value) -> out.writeByte((Byte) value), DataInput::readByte);
+
+    private static final ValueCodec DOUBLE = codec((out, value) -> out.writeDouble((Double) value), DataInput::readDouble);
+
+    private static final ValueCodec FLOAT = codec((out, value) -> out.writeFloat((Float) value), DataInput::readFloat);
+
+    private static final ValueCodec BOOLEAN = codec((out, value) -> out.writeBoolean((Boolean) value), DataInput::readBoolean);
+
+    private static final ValueCodec CHAR = codec((out, value) -> out.writeChar((Character) value), DataInput::readChar);
+
+    private static final ValueCodec BYTES = codec((out, value) -> {
+        final byte[] bytes = (byte[]) value;
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }, in -> {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    });
+
+    private static final ValueCodec STRING = codec((out, value) -> BYTES.write(out, ((String) value).getBytes(StandardCharsets.UTF_8)),
+            in -> new String((byte[]) BYTES.read(in), StandardCharsets.UTF_8));
+
+    private static final ValueCodec BIG_DECIMAL = codec((out, value) -> {
+        out.writeInt(((BigDecimal) value).scale());
+        BYTES.write(out, ((BigDecimal) value).unscaledValue().toByteArray());
+    }, in -> {
+        final int scale = in.readInt();
+        return new BigDecimal(new BigInteger((byte[]) BYTES.read(in)), scale);
+    });
+
+    private static final ValueCodec LOCAL_DATE = codec((out, value) -> out.writeInt((int) ((LocalDate) value).toEpochDay()),
+            in -> LocalDate.ofEpochDay(in.readInt()));
+
+    private static final ValueCodec LOCAL_DATE_TIME = codec((out, value) -> {
+        LOCAL_DATE.write(out, ((LocalDateTime) value).toLocalDate());
+        out.writeLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+    }, in -> LocalDateTime.of((LocalDate) LOCAL_DATE.read(in), LocalTime.ofNanoOfDay(in.readLong())));
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static ValueCodec codecOf(final Class<?> type) {
+        if (type.isPrimitive()) {
+            if (type == long.class) {
+                return LONG;
+            } else if (type == int.class) {
+                return INT;
+            } else if (type == double.class) {
+                return DOUBLE;
+            } else if (type == boolean.class) {
+                return BOOLEAN;
+            } else if (type == float.class) {
+                return FLOAT;
+            } else if (type == short.class) {
+                return SHORT;
+            } else if (type == byte.class) {
+                return BYTE;
+            } else if (type == char.class) {
+                return CHAR;
+            }
+        }
+        final ValueCodec codec;
+        if (type == Long.class) {
+            codec = LONG;
+        } else if (type == Integer.class) {
+            codec = INT;
+        } else if (type == Double.class) {
+            codec = DOUBLE;
+        } else if (type == Boolean.class) {
+            codec = BOOLEAN;
+        } else if (type == Float.class) {
+            codec = FLOAT;
+        } else if (type == Short.class) {
+            codec = SHORT;
+        } else if (type == Byte.class) {
+            codec = BYTE;
+        } else if (type == Character.class) {
+            codec = CHAR;
+        } else if (type == String.class) {
+            codec = STRING;
+        } else if (type == BigDecimal.class) {
+            codec = BIG_DECIMAL;
+        } else if (type == LocalDate.class) {
+            codec = LOCAL_DATE;
+        } else if (type == LocalDateTime.class) {
+            codec = LOCAL_DATE_TIME;
+        } else if (type == byte[].class) {
+            codec = BYTES;
+        } else if (type.isEnum()) {
+            final Object[] constants = type.getEnumConstants();
+            codec = codec((out, value) -> out.writeShort(((Enum) value).ordinal()), in -> constants[in.readShort()]);
+        } else {
+            return null;
+        }
+        return nullable(codec);
+    }
+
+}
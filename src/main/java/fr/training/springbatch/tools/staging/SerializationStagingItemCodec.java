@@ -0,0 +1,24 @@
+package fr.training.springbatch.tools.staging;
+
+import org.springframework.util.SerializationUtils;
+
+/**
+ * Java serialization codec (the default one) : works for any {@link java.io.Serializable} item, but the payload holds the class descriptors of each item.
+ *
+ * @param <T>
+ *            item type
+ */
+public class SerializationStagingItemCodec<T> implements StagingItemCodec<T> {
+
+    @Override
+    public byte[] encode(final T item) {
+        return SerializationUtils.serialize(item);
+    }
+
+    @SuppressWarnings({ "unchecked", "deprecation" })
+    @Override
+    public T decode(final byte[] payload) {
+        return (T) SerializationUtils.deserialize(payload);
+    }
+
+}
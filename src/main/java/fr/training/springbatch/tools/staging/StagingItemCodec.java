@@ -0,0 +1,28 @@
+package fr.training.springbatch.tools.staging;
+
+/**
+ * Strategy to convert the items to the payload of the BATCH_STAGING table (VALUE_ column) and back.
+ *
+ * @param <T>
+ *            item type
+ *
+ * @see StagingItemWriter
+ * @see StagingItemReader
+ */
+public interface StagingItemCodec<T> {
+
+    /**
+     * @param item
+     *            the item to store
+     * @return the payload
+     */
+    byte[] encode(T item);
+
+    /**
+     * @param payload
+     *            the stored payload
+     * @return the item
+     */
+    T decode(byte[] payload);
+
+}
@@ -1,7 +1,11 @@
 package fr.training.springbatch.tools.staging;
 
-import java.util.Iterator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -14,16 +18,24 @@ import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ReaderNotOpenException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
-import org.springframework.util.SerializationUtils;
 
 /**
  * Thread-safe database {@link ItemReader} implementing the process indicator pattern.
  *
  * To achieve restartability use together with {@link StagingItemProcessor}.
+ *
+ * The values are fetched by blocks of <code>fetchSize</code> keys with a single <code>IN</code> query into a buffer shared by the threads, so there is one
+ * database round trip per block instead of one per item. The buffer is only refilled when empty, under the lock : the reader returns null once every key has
+ * been handed out.
+ *
+ * The keys are read on demand by pages of <code>pageSize</code> (keyset pagination on ID), so the memory used doesn't depend on the number of staging records.
  */
 public class StagingItemReader<T> implements ItemReader<ProcessIndicatorItemWrapper<T>>, StepExecutionListener, InitializingBean, DisposableBean {
 
@@ -35,38 +47,66 @@ public class StagingItemReader<T> implements ItemReader<ProcessIndicatorItemWrap
 
     private volatile boolean initialized;
 
-    private volatile Iterator<Long> keys;
+    private volatile KeyPager keys;
 
     private JdbcOperations jdbcTemplate;
 
+    private NamedParameterJdbcOperations namedParameterJdbcTemplate;
+
+    private int fetchSize = 100;
+
+    private int pageSize = 10_000;
+
+    private StagingItemCodec<? extends T> codec = new SerializationStagingItemCodec<>();
+
+    /**
+     * Items fetched but not yet read, shared by the threads. Must be used under the lock.
+     */
+    private final Deque<ProcessIndicatorItemWrapper<T>> items = new ArrayDeque<>();
+
     public void setDataSource(final DataSource dataSource) {
         jdbcTemplate = new JdbcTemplate(dataSource);
+        namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
     }
 
-    @Override
-    public void destroy() throws Exception {
-        initialized = false;
-        keys = null;
+    /**
+     * @param fetchSize
+     *            the number of values fetched in a single query (default 100).
+     */
+    public void setFetchSize(final int fetchSize) {
+        this.fetchSize = fetchSize;
     }
 
-    @Override
-    public final void afterPropertiesSet() throws Exception {
-        Assert.notNull(jdbcTemplate, "You must provide a DataSource.");
+    /**
+     * @param pageSize
+     *            the number of keys read at a time from the staging table (default 10 000).
+     */
+    public void setPageSize(final int pageSize) {
+        this.pageSize = pageSize;
     }
 
-    private List<Long> retrieveKeys() {
+    /**
+     * @param codec
+     *            the {@link StagingItemCodec} of the payloads, the one of the {@link StagingItemWriter} (default java serialization).
+     */
+    public void setCodec(final StagingItemCodec<? extends T> codec) {
+        this.codec = codec;
+    }
 
+    @Override
+    public void destroy() throws Exception {
         synchronized (lock) {
-
-            return jdbcTemplate.query(
-
-                    "SELECT ID FROM BATCH_STAGING WHERE JOB_ID=? AND PROCESSED=? ORDER BY ID",
-
-                    (rs, rowNum) -> rs.getLong(1),
-
-                    stepExecution.getJobExecution().getJobId(), StagingItemWriter.NEW);
+            initialized = false;
+            keys = null;
+            items.clear();
         }
+    }
 
+    @Override
+    public final void afterPropertiesSet() throws Exception {
+        Assert.notNull(jdbcTemplate, "You must provide a DataSource.");
+        Assert.isTrue(fetchSize > 0, "The fetchSize must be greater than zero.");
+        Assert.isTrue(pageSize > 0, "The pageSize must be greater than zero.");
     }
 
     @Nullable
@@ -76,24 +116,38 @@ public class StagingItemReader<T> implements ItemReader<ProcessIndicatorItemWrap
             throw new ReaderNotOpenException("Reader must be open before it can be used.");
         }
 
-        Long id = null;
         synchronized (lock) {
-            if (keys.hasNext()) {
-                id = keys.next();
+            if (items.isEmpty()) {
+                fetch();
             }
+            return items.poll();
         }
-        logger.debug("Retrieved key from list: " + id);
+    }
 
-        if (id == null) {
-            return null;
+    /**
+     * Take the next block of keys and fetch their values in a single query, keeping the order of the keys. Must be used under the lock.
+     */
+    private void fetch() {
+        final List<Long> ids = new ArrayList<>(fetchSize);
+        while (ids.size() < fetchSize && keys.hasNext()) {
+            ids.add(keys.nextLong());
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        logger.debug("Retrieved keys from list: " + ids.get(0) + ".." + ids.get(ids.size() - 1));
+
+        final Map<Long, T> values = new HashMap<>(ids.size() * 2);
+        namedParameterJdbcTemplate.query("SELECT ID, VALUE_ FROM BATCH_STAGING WHERE ID IN (:ids)", Map.of("ids", ids), rs -> {
+            values.put(rs.getLong(1), codec.decode(rs.getBytes(2)));
+        });
+        for (final Long id : ids) {
+            final T value = values.get(id);
+            if (value == null) {
+                throw new EmptyResultDataAccessException("No staging record found with ID=" + id, 1);
+            }
+            items.add(new ProcessIndicatorItemWrapper<>(id, value));
         }
-        @SuppressWarnings("unchecked")
-        final T result = (T) jdbcTemplate.queryForObject("SELECT VALUE_ FROM BATCH_STAGING WHERE ID=?", (rs, rowNum) -> {
-            final byte[] blob = rs.getBytes(1);
-            return SerializationUtils.deserialize(blob);
-        }, id);
-
-        return new ProcessIndicatorItemWrapper<>(id, result);
     }
 
     @Nullable
@@ -107,11 +161,65 @@ public class StagingItemReader<T> implements ItemReader<ProcessIndicatorItemWrap
         this.stepExecution = stepExecution;
         synchronized (lock) {
             if (keys == null) {
-                keys = retrieveKeys().iterator();
-                logger.info("Keys obtained for staging.");
+                items.clear();
+                keys = new KeyPager(stepExecution.getJobExecution().getJobId());
+                logger.info("Keys paging ready for staging.");
                 initialized = true;
             }
         }
     }
 
+    /**
+     * Keyset pagination of the unprocessed keys of the job : only the current page is kept, in a primitive array. Must be used under the lock.
+     */
+    private final class KeyPager {
+
+        private final long jobId;
+
+        private final long[] page = new long[pageSize];
+
+        private int size;
+
+        private int position;
+
+        private long lastId = Long.MIN_VALUE;
+
+        private boolean exhausted;
+
+        private KeyPager(final long jobId) {
+            this.jobId = jobId;
+        }
+
+        private boolean hasNext() {
+            if (position < size) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            nextPage();
+            return size > 0;
+        }
+
+        private long nextLong() {
+            return page[position++];
+        }
+
+        private void nextPage() {
+            size = 0;
+            position = 0;
+            jdbcTemplate.query("SELECT ID FROM BATCH_STAGING WHERE JOB_ID=? AND PROCESSED=? AND ID>? ORDER BY ID FETCH FIRST " + page.length + " ROWS ONLY",
+                    rs -> {
+                        page[size++] = rs.getLong(1);
+                    }, jobId, StagingItemWriter.NEW, lastId);
+            if (size < page.length) {
+                exhausted = true;
+            }
+            if (size > 0) {
+                lastId = page[size - 1];
+            }
+            logger.debug("Page of " + size + " keys obtained for staging.");
+        }
+    }
+
 }
\ No newline at end of file
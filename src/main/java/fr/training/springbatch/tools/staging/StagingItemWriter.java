@@ -16,7 +16,6 @@ import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
-import org.springframework.util.SerializationUtils;
 
 /**
  * Database {@link ItemWriter} implementing the process indicator pattern.
@@ -29,6 +28,8 @@ public class StagingItemWriter<T> extends JdbcDaoSupport implements StepExecutio
 
     private DataFieldMaxValueIncrementer incrementer;
 
+    private StagingItemCodec<? super T> codec = new SerializationStagingItemCodec<>();
+
     private StepExecution stepExecution;
 
     /**
@@ -53,6 +54,14 @@ public class StagingItemWriter<T> extends JdbcDaoSupport implements StepExecutio
         this.incrementer = incrementer;
     }
 
+    /**
+     * @param codec
+     *            the {@link StagingItemCodec} of the payloads (default java serialization).
+     */
+    public void setCodec(final StagingItemCodec<? super T> codec) {
+        this.codec = codec;
+    }
+
     /**
      * Serialize the item to the staging table, and add a NEW processed flag.
      *
@@ -74,7 +83,7 @@ public class StagingItemWriter<T> extends JdbcDaoSupport implements StepExecutio
 
                 ps.setLong(1, incrementer.nextLongValue());
                 ps.setLong(2, stepExecution.getJobExecution().getJobId());
-                ps.setBytes(3, SerializationUtils.serialize(itemIterator.next()));
+                ps.setBytes(3, codec.encode(itemIterator.next()));
                 ps.setString(4, NEW);
             }
         });
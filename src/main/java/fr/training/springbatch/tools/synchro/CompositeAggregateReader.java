@@ -22,6 +22,12 @@ import org.springframework.util.Assert;
  * <b>The 2 Streams must share the same key and must be ordered on this key.</b>
  *
  * <p>
+ * Keys are either extracted as {@link Comparable} objects (see {@link #setMasterKeyExtractor(Function)} and {@link #setSlaveKeyExtractor(Function)}), or
+ * compared directly on the item fields by a {@link MasterSlaveComparator} (see {@link #setKeyComparator(MasterSlaveComparator)}), which avoids building a
+ * key object (boxed primitive, composite key tuple...) for each item read.
+ * </p>
+ *
+ * <p>
  * <b>not</b> thread-safe because the underline used {@link SingleItemPeekableItemReader } is not.
  * </p>
  *
@@ -48,8 +54,14 @@ public class CompositeAggregateReader<M, S, K extends Comparable<K>> extends Abs
 
     private Function<S, K> slaveKeyExtractor;
 
+    private MasterSlaveComparator<M, S> keyComparator;
+
     private BiConsumer<M, S> masterAggregator;
 
+    private int readAheadSize;
+
+    private boolean readAheadWrapped;
+
     @Override
     public M read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
 
@@ -58,7 +70,7 @@ public class CompositeAggregateReader<M, S, K extends Comparable<K>> extends Abs
         if (item == null) {
             return null;
         }
-        final K masterKey = masterKeyExtractor.apply(item);
+        final K masterKey = keyComparator == null ? masterKeyExtractor.apply(item) : null;
 
         while (true) {
             final S possibleRelatedItem = peekableItemReader.peek();
@@ -66,12 +78,18 @@ public class CompositeAggregateReader<M, S, K extends Comparable<K>> extends Abs
                 return item;
             }
 
-            final K slaveKey = slaveKeyExtractor.apply(possibleRelatedItem);
-
             // logic to determine if next line in slave file relates to same Master object
-            final int keyComparison = slaveKey.compareTo(masterKey);
-
-            log.trace("MasterKey {}, slaveKey {} match {}", masterKey, slaveKey, keyComparison);
+            final int keyComparison;
+            if (keyComparator != null) {
+                // slave key compared to master key
+                keyComparison = Integer.compare(0, keyComparator.compare(item, possibleRelatedItem));
+            } else {
+                final K slaveKey = slaveKeyExtractor.apply(possibleRelatedItem);
+                keyComparison = slaveKey.compareTo(masterKey);
+                if (log.isTraceEnabled()) {
+                    log.trace("MasterKey {}, slaveKey {} match {}", masterKey, slaveKey, keyComparison);
+                }
+            }
 
             if (keyComparison == 0) {
                 // keys are equals : accumulate the slave item
@@ -94,6 +112,12 @@ public class CompositeAggregateReader<M, S, K extends Comparable<K>> extends Abs
 
     @Override
     public void open(final ExecutionContext executionContext) {
+        if (readAheadSize > 0 && !readAheadWrapped) {
+            // each stream is drained by its own thread
+            masterItemReader = new ReadAheadItemReader<>(masterItemReader, readAheadSize);
+            peekableItemReader.setDelegate(new ReadAheadItemReader<>(slaveItemReader, readAheadSize));
+            readAheadWrapped = true;
+        }
         masterItemReader.open(executionContext);
         peekableItemReader.open(executionContext);
     }
@@ -107,10 +131,12 @@ public class CompositeAggregateReader<M, S, K extends Comparable<K>> extends Abs
     @Override
     public void afterPropertiesSet() throws Exception {
         Assert.notNull(masterItemReader, "The 'masterItemReader' may not be null");
-        Assert.notNull(masterKeyExtractor, "The 'masterKeyExtractor' may not be null");
         Assert.notNull(masterAggregator, "The 'masterAggregator' may not be null");
         Assert.notNull(slaveItemReader, "The 'slaveItemReader' may not be null");
-        Assert.notNull(slaveKeyExtractor, "The 'slaveKeyExtractor' may not be null");
+        if (keyComparator == null) {
+            Assert.notNull(masterKeyExtractor, "The 'masterKeyExtractor' may not be null");
+            Assert.notNull(slaveKeyExtractor, "The 'slaveKeyExtractor' may not be null");
+        }
     }
 
     /**
@@ -155,6 +181,16 @@ public class CompositeAggregateReader<M, S, K extends Comparable<K>> extends Abs
         this.slaveKeyExtractor = slaveKeyExtractor;
     }
 
+    /**
+     * Compare master and slave items directly on their key fields instead of extracting key objects (the key extractors are then ignored).
+     *
+     * @param keyComparator
+     *            {@link MasterSlaveComparator<M, S>} used to compare the key of the master item with the key of the slave item.
+     */
+    public void setKeyComparator(final MasterSlaveComparator<M, S> keyComparator) {
+        this.keyComparator = keyComparator;
+    }
+
     /**
      * The {@link BiConsumer<M, S>} function to add/set the slave Item to the master Item.
      * <p>
@@ -169,4 +205,15 @@ public class CompositeAggregateReader<M, S, K extends Comparable<K>> extends Abs
         this.masterAggregator = masterAggregator;
     }
 
+    /**
+     * Opt-in prefetch mode : when greater than zero, the master and the slave readers are each drained by a background {@link ReadAheadItemReader} that
+     * buffers up to <code>readAheadSize</code> items, so parsing overlaps with aggregation.
+     *
+     * @param readAheadSize
+     *            the number of items read ahead by stream (0, the default, disables the prefetch mode)
+     */
+    public void setReadAheadSize(final int readAheadSize) {
+        this.readAheadSize = readAheadSize;
+    }
+
 }
@@ -0,0 +1,45 @@
+package fr.training.springbatch.tools.synchro;
+
+/**
+ * A difference between the previous and the current snapshot of a data set, read by the {@link SortedDeltaItemReader}.
+ *
+ * @param <T>
+ *            The item type of the snapshots
+ * @param type
+ *            the kind of difference
+ * @param previous
+ *            the item of the previous snapshot (null when added)
+ * @param current
+ *            the item of the current snapshot (null when removed)
+ *
+ * @author Desprez
+ */
+public record Delta<T>(Type type, T previous, T current) {
+
+    public enum Type {
+        /**
+         * Key only in the current snapshot.
+         */
+        ADDED,
+        /**
+         * Key only in the previous snapshot.
+         */
+        REMOVED,
+        /**
+         * Key in both snapshots, with another content hash.
+         */
+        MODIFIED,
+        /**
+         * Key in both snapshots (with the same content hash if any).
+         */
+        UNCHANGED
+    }
+
+    /**
+     * @return the current item, or the previous one when removed.
+     */
+    public T item() {
+        return current != null ? current : previous;
+    }
+
+}
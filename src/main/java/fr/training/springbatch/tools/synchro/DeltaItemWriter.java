@@ -0,0 +1,108 @@
+package fr.training.springbatch.tools.synchro;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import fr.training.springbatch.tools.synchro.Delta.Type;
+
+/**
+ * An {@link ItemWriter} that routes the {@link Delta}s of a chunk to a writer by kind of difference (a kind without writer is ignored). The added,
+ * modified and unchanged writers receive the current items, the removed writer the previous items.
+ *
+ * The delegate writers that are {@link ItemStream}s are opened, updated and closed with this writer.
+ *
+ * @param <T>
+ *            The item type of the snapshots
+ *
+ * @author Desprez
+ */
+public class DeltaItemWriter<T> implements ItemStreamWriter<Delta<T>>, InitializingBean {
+
+    private final Map<Type, ItemWriter<? super T>> writers = new EnumMap<>(Type.class);
+
+    @Override
+    public void write(final Chunk<? extends Delta<T>> chunk) throws Exception {
+        final Map<Type, Chunk<T>> chunks = new EnumMap<>(Type.class);
+        for (final Delta<T> delta : chunk) {
+            if (writers.containsKey(delta.type())) {
+                chunks.computeIfAbsent(delta.type(), type -> new Chunk<>()).add(delta.item());
+            }
+        }
+        for (final Map.Entry<Type, Chunk<T>> entry : chunks.entrySet()) {
+            writers.get(entry.getKey()).write(entry.getValue());
+        }
+    }
+
+    @Override
+    public void open(final ExecutionContext executionContext) {
+        for (final ItemWriter<? super T> writer : writers.values()) {
+            if (writer instanceof final ItemStream stream) {
+                stream.open(executionContext);
+            }
+        }
+    }
+
+    @Override
+    public void update(final ExecutionContext executionContext) {
+        for (final ItemWriter<? super T> writer : writers.values()) {
+            if (writer instanceof final ItemStream stream) {
+                stream.update(executionContext);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (final ItemWriter<? super T> writer : writers.values()) {
+            if (writer instanceof final ItemStream stream) {
+                stream.close();
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.state(!writers.isEmpty(), "At least one writer is required");
+    }
+
+    /**
+     * @param addedItemWriter
+     *            the {@link ItemWriter} of the items only in the current snapshot.
+     */
+    public void setAddedItemWriter(final ItemWriter<? super T> addedItemWriter) {
+        writers.put(Type.ADDED, addedItemWriter);
+    }
+
+    /**
+     * @param removedItemWriter
+     *            the {@link ItemWriter} of the items only in the previous snapshot.
+     */
+    public void setRemovedItemWriter(final ItemWriter<? super T> removedItemWriter) {
+        writers.put(Type.REMOVED, removedItemWriter);
+    }
+
+    /**
+     * @param modifiedItemWriter
+     *            the {@link ItemWriter} of the items in both snapshots with another content.
+     */
+    public void setModifiedItemWriter(final ItemWriter<? super T> modifiedItemWriter) {
+        writers.put(Type.MODIFIED, modifiedItemWriter);
+    }
+
+    /**
+     * @param unchangedItemWriter
+     *            the {@link ItemWriter} of the items in both snapshots.
+     */
+    public void setUnchangedItemWriter(final ItemWriter<? super T> unchangedItemWriter) {
+        writers.put(Type.UNCHANGED, unchangedItemWriter);
+    }
+
+}
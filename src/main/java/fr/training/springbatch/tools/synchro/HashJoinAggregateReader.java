@@ -0,0 +1,455 @@
+package fr.training.springbatch.tools.synchro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.batch.item.support.AbstractItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+/**
+ * <p>
+ * An {@link ItemReader} that aggregates the slave items into the master items like the {@link CompositeAggregateReader}, but with a hash join : the slave
+ * stream is first loaded in an in-memory index on the slave key, then the master stream is read through this index. <b>None of the streams needs to be
+ * sorted</b>, which suits a small slave side (a reference table, a daily delta...).
+ * </p>
+ *
+ * <p>
+ * When the slave stream holds more than <code>maxInMemorySlaveItems</code> items, both streams are partitioned to temporary files on the hash of their key
+ * (grace hash join), then each partition is joined in memory in turn. A partition still holding more slave items than the budget is partitioned again on
+ * the next digits of the hash, so that the in-memory index never exceeds the budget ; slave items sharing a single key hash beyond the budget fail the read.
+ * In this mode, the master items are returned grouped by partition (their order within a partition is kept) and both items types must be
+ * {@link java.io.Serializable}.
+ * </p>
+ *
+ * <p>
+ * The restart position is the number of master items returned : the delegates are always read from their beginning and the already returned aggregates are
+ * skipped. <b>not</b> thread-safe.
+ * </p>
+ *
+ * @param <M>
+ *            The master Item Type (the aggregate root)
+ * @param <S>
+ *            The slave Item Type
+ * @param <K>
+ *            the type of the key (must implement hashCode/equals)
+ *
+ * @author Desprez
+ */
+public class HashJoinAggregateReader<M, S, K> extends AbstractItemCountingItemStreamItemReader<M> implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(HashJoinAggregateReader.class);
+
+    /**
+     * Reset the object streams periodically so that they don't retain every object written.
+     */
+    private static final int RESET_INTERVAL = 1000;
+
+    private AbstractItemStreamItemReader<M> masterItemReader;
+
+    private AbstractItemStreamItemReader<S> slaveItemReader;
+
+    private Function<M, K> masterKeyExtractor;
+
+    private Function<S, K> slaveKeyExtractor;
+
+    private BiConsumer<M, S> masterAggregator;
+
+    private int maxInMemorySlaveItems = 1_000_000;
+
+    private int spillPartitions = 16;
+
+    private String tempDirectory = System.getProperty("java.io.tmpdir");
+
+    private final Map<K, List<S>> index = new HashMap<>();
+
+    /**
+     * Partitions left to join (empty while the join fits in memory).
+     */
+    private final Deque<Partition> partitions = new ArrayDeque<>();
+
+    private boolean partitioned;
+
+    private Partition currentPartition;
+
+    private ObjectInputStream currentMasters;
+
+    public HashJoinAggregateReader() {
+        setName(getClass().getSimpleName());
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        index.clear();
+        partitions.clear();
+        partitioned = false;
+        // the delegates are read from the beginning, the restart position is handled by the item count
+        final PartitionFiles slaveFiles;
+        slaveItemReader.open(new ExecutionContext());
+        try {
+            slaveFiles = buildIndex();
+        } finally {
+            slaveItemReader.close();
+        }
+        masterItemReader.open(new ExecutionContext());
+        if (slaveFiles != null) {
+            partitioned = true;
+            final PartitionFiles masterFiles;
+            try {
+                masterFiles = partitionMasters();
+            } finally {
+                masterItemReader.close();
+            }
+            addPartitions(masterFiles, slaveFiles, 0);
+        }
+    }
+
+    @Override
+    protected M doRead() throws Exception {
+        if (!partitioned) {
+            final M item = masterItemReader.read();
+            if (item != null) {
+                join(item);
+            }
+            return item;
+        }
+        while (true) {
+            if (currentMasters != null) {
+                @SuppressWarnings("unchecked")
+                final M item = (M) currentMasters.readObject();
+                if (item != null) {
+                    join(item);
+                    return item;
+                }
+                currentMasters.close();
+                currentMasters = null;
+                currentPartition.delete();
+                currentPartition = null;
+            }
+            final Partition partition = partitions.pollFirst();
+            if (partition == null) {
+                return null;
+            }
+            if (partition.slaveCount() > maxInMemorySlaveItems) {
+                split(partition);
+            } else {
+                loadPartition(partition);
+            }
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (!partitioned) {
+            masterItemReader.close();
+        }
+        if (currentMasters != null) {
+            currentMasters.close();
+            currentMasters = null;
+        }
+        if (currentPartition != null) {
+            currentPartition.delete();
+            currentPartition = null;
+        }
+        for (final Partition partition : partitions) {
+            partition.delete();
+        }
+        partitions.clear();
+        index.clear();
+    }
+
+    private void join(final M item) {
+        final List<S> slaves = index.get(masterKeyExtractor.apply(item));
+        if (slaves != null) {
+            for (final S slave : slaves) {
+                masterAggregator.accept(item, slave);
+            }
+        }
+    }
+
+    /**
+     * Load the slave stream in memory, switching to the partitioned mode if it's too large.
+     *
+     * @return the slave partition files, or null if the slave stream fits in memory
+     */
+    private PartitionFiles buildIndex() throws Exception {
+        int count = 0;
+        PartitionOutputs outputs = null;
+        try {
+            S slave;
+            while ((slave = slaveItemReader.read()) != null) {
+                if (outputs != null) {
+                    outputs.write(partitionOf(slaveKeyExtractor.apply(slave), 0), slave);
+                } else {
+                    index.computeIfAbsent(slaveKeyExtractor.apply(slave), key -> new ArrayList<>(1)).add(slave);
+                    if (++count > maxInMemorySlaveItems) {
+                        log.info("More than {} slave items : partitioning to {} files in {}", maxInMemorySlaveItems, spillPartitions, tempDirectory);
+                        outputs = new PartitionOutputs("hash-join-slave-");
+                        for (final Map.Entry<K, List<S>> entry : index.entrySet()) {
+                            final int partition = partitionOf(entry.getKey(), 0);
+                            for (final S indexed : entry.getValue()) {
+                                outputs.write(partition, indexed);
+                            }
+                        }
+                        index.clear();
+                    }
+                }
+            }
+        } finally {
+            if (outputs != null) {
+                outputs.close();
+            }
+        }
+        return outputs == null ? null : outputs.files();
+    }
+
+    private PartitionFiles partitionMasters() throws Exception {
+        try (PartitionOutputs outputs = new PartitionOutputs("hash-join-master-")) {
+            M master;
+            while ((master = masterItemReader.read()) != null) {
+                outputs.write(partitionOf(masterKeyExtractor.apply(master), 0), master);
+            }
+            return outputs.files();
+        }
+    }
+
+    /**
+     * Partition again a partition holding more slave items than the memory budget, on the next digits of the key hash.
+     */
+    private void split(final Partition partition) throws IOException, ClassNotFoundException {
+        final int depth = partition.depth() + 1;
+        log.debug("{} slave items in a partition : partitioning it again (depth {})", partition.slaveCount(), depth);
+        final PartitionFiles slaveFiles = split(partition.slaveFile(), depth, "hash-join-slave-", slaveKeyExtractor);
+        for (final int count : slaveFiles.counts()) {
+            if (count == partition.slaveCount()) {
+                // all the slave items have the same key hash : no partitioning can fit them in memory
+                slaveFiles.delete();
+                partition.delete();
+                throw new IllegalStateException(
+                        String.format("%d slave items share the same key hash, beyond the memory budget of %d items (maxInMemorySlaveItems)", count,
+                                maxInMemorySlaveItems));
+            }
+        }
+        final PartitionFiles masterFiles = split(partition.masterFile(), depth, "hash-join-master-", masterKeyExtractor);
+        partition.delete();
+        addPartitions(masterFiles, slaveFiles, depth);
+    }
+
+    private <T> PartitionFiles split(final Path file, final int depth, final String prefix, final Function<T, K> keyExtractor)
+            throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)));
+                PartitionOutputs outputs = new PartitionOutputs(prefix)) {
+            Object item;
+            while ((item = input.readObject()) != null) {
+                @SuppressWarnings("unchecked")
+                final T typed = (T) item;
+                outputs.write(partitionOf(keyExtractor.apply(typed), depth), item);
+            }
+            return outputs.files();
+        }
+    }
+
+    /**
+     * Queue the partitions at the head, so that they are joined before the partitions of the lower depths (the restart relies on this order).
+     */
+    private void addPartitions(final PartitionFiles masterFiles, final PartitionFiles slaveFiles, final int depth) {
+        for (int i = spillPartitions - 1; i >= 0; i--) {
+            partitions.addFirst(new Partition(masterFiles.files()[i], slaveFiles.files()[i], slaveFiles.counts()[i], depth));
+        }
+    }
+
+    private void loadPartition(final Partition partition) throws IOException, ClassNotFoundException {
+        index.clear();
+        try (ObjectInputStream slaves = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(partition.slaveFile())))) {
+            Object slave;
+            while ((slave = slaves.readObject()) != null) {
+                @SuppressWarnings("unchecked")
+                final S item = (S) slave;
+                index.computeIfAbsent(slaveKeyExtractor.apply(item), key -> new ArrayList<>(1)).add(item);
+            }
+        }
+        currentPartition = partition;
+        currentMasters = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(partition.masterFile())));
+    }
+
+    /**
+     * @return the digit of rank <code>depth</code> of the key hash written in base <code>spillPartitions</code>
+     */
+    private int partitionOf(final K key, final int depth) {
+        long hash = Integer.toUnsignedLong(key == null ? 0 : key.hashCode());
+        for (int i = 0; i < depth; i++) {
+            hash /= spillPartitions;
+        }
+        return (int) (hash % spillPartitions);
+    }
+
+    private static void deleteFiles(final Path... files) {
+        for (final Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                throw new ItemStreamException("Unable to delete " + file, e);
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(masterItemReader, "The 'masterItemReader' may not be null");
+        Assert.notNull(masterKeyExtractor, "The 'masterKeyExtractor' may not be null");
+        Assert.notNull(masterAggregator, "The 'masterAggregator' may not be null");
+        Assert.notNull(slaveItemReader, "The 'slaveItemReader' may not be null");
+        Assert.notNull(slaveKeyExtractor, "The 'slaveKeyExtractor' may not be null");
+        Assert.isTrue(maxInMemorySlaveItems > 0, "The 'maxInMemorySlaveItems' must be greater than zero");
+        Assert.isTrue(spillPartitions > 1, "The 'spillPartitions' must be greater than one");
+    }
+
+    /**
+     * @param masterItemReader
+     *            {@link AbstractItemStreamItemReader<M>} reader that will read master items (in any order).
+     */
+    public void setMasterItemReader(final AbstractItemStreamItemReader<M> masterItemReader) {
+        this.masterItemReader = masterItemReader;
+    }
+
+    /**
+     * @param slaveItemReader
+     *            {@link AbstractItemStreamItemReader<S>} reader that will read slave items (in any order).
+     */
+    public void setSlaveItemReader(final AbstractItemStreamItemReader<S> slaveItemReader) {
+        this.slaveItemReader = slaveItemReader;
+    }
+
+    /**
+     * @param masterKeyExtractor
+     *            {@link Function<M, K>} used to extract the key of the master item.
+     */
+    public void setMasterKeyExtractor(final Function<M, K> masterKeyExtractor) {
+        this.masterKeyExtractor = masterKeyExtractor;
+    }
+
+    /**
+     * @param slaveKeyExtractor
+     *            {@link Function<S, K>} used to extract the key of the slave item.
+     */
+    public void setSlaveKeyExtractor(final Function<S, K> slaveKeyExtractor) {
+        this.slaveKeyExtractor = slaveKeyExtractor;
+    }
+
+    /**
+     * Same contract as {@link CompositeAggregateReader#setMasterAggregator(BiConsumer)}.
+     *
+     * @param masterAggregator
+     *            {@link BiConsumer<M, S>} function to add the slave Item to the master Item.
+     */
+    public void setMasterAggregator(final BiConsumer<M, S> masterAggregator) {
+        this.masterAggregator = masterAggregator;
+    }
+
+    /**
+     * @param maxInMemorySlaveItems
+     *            the memory budget, in number of slave items, beyond which both streams are partitioned to disk (default 1 000 000).
+     */
+    public void setMaxInMemorySlaveItems(final int maxInMemorySlaveItems) {
+        this.maxInMemorySlaveItems = maxInMemorySlaveItems;
+    }
+
+    /**
+     * @param spillPartitions
+     *            the number of partition files by stream when the memory budget is exceeded, and of sub-partitions of a partition still exceeding it
+     *            (default 16).
+     */
+    public void setSpillPartitions(final int spillPartitions) {
+        this.spillPartitions = spillPartitions;
+    }
+
+    /**
+     * @param tempDirectory
+     *            the directory of the partition files (default java.io.tmpdir).
+     */
+    public void setTempDirectory(final String tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * A partition of both sides of the join.
+     */
+    private record Partition(Path masterFile, Path slaveFile, int slaveCount, int depth) {
+
+        private void delete() {
+            deleteFiles(masterFile, slaveFile);
+        }
+    }
+
+    /**
+     * The partition files of one side of the join, and their item counts.
+     */
+    private record PartitionFiles(Path[] files, int[] counts) {
+
+        private void delete() {
+            deleteFiles(files);
+        }
+    }
+
+    /**
+     * The object streams of the partition files of one side of the join.
+     */
+    private final class PartitionOutputs implements AutoCloseable {
+
+        private final Path[] files;
+
+        private final ObjectOutputStream[] outputs;
+
+        private final int[] counts;
+
+        private PartitionOutputs(final String prefix) throws IOException {
+            files = new Path[spillPartitions];
+            outputs = new ObjectOutputStream[spillPartitions];
+            counts = new int[spillPartitions];
+            for (int i = 0; i < spillPartitions; i++) {
+                files[i] = Files.createTempFile(Paths.get(tempDirectory), prefix, ".tmp");
+                outputs[i] = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(files[i])));
+            }
+        }
+
+        private PartitionFiles files() {
+            return new PartitionFiles(files, counts);
+        }
+
+        private void write(final int partition, final Object item) throws IOException {
+            outputs[partition].writeObject(item);
+            if (++counts[partition] % RESET_INTERVAL == 0) {
+                outputs[partition].reset();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (final ObjectOutputStream output : outputs) {
+                // end of partition marker
+                output.writeObject(null);
+                output.close();
+            }
+        }
+    }
+
+}
@@ -2,11 +2,15 @@ package fr.training.springbatch.tools.synchro;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.stream.Collector;
 
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemStream;
 import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
 
@@ -28,6 +32,8 @@ public abstract class ItemAccumulator<T, K extends Comparable<K>> implements Ite
     private T lastItem;
     private List<T> lastItemList;
 
+    private int readAheadSize;
+
     public ItemAccumulator(final ItemReader<T> reader) {
         this.reader = reader;
     }
@@ -52,7 +58,7 @@ public abstract class ItemAccumulator<T, K extends Comparable<K>> implements Ite
      * @return true if the item matches or is greater than the key, otherwise false.
      */
     public boolean checkPositionKey(final T item, final K key) {
-        return getKey(item) == null || getKey(item).compareTo(key) < 0;
+        return compareKey(item, key) < 0;
     }
 
     /**
@@ -65,7 +71,36 @@ public abstract class ItemAccumulator<T, K extends Comparable<K>> implements Ite
      * @return true if the item matches the key, otherwise false.
      */
     public boolean checkEqualKey(final T item, final K key) {
-        return getKey(item).equals(key);
+        return compareKey(item, key) == 0;
+    }
+
+    /**
+     * Compare the key of an item with a key value, extracting the item key only once. An item without key is lower than any key.
+     * <p/>
+     * Subclasses may override this method (with {@link #isSameKey(Object, Object)}) to compare key fields directly, without building key objects.
+     *
+     * @param item
+     *            item to be checked
+     * @param key
+     *            key value
+     * @return a negative integer, zero, or a positive integer as the item key is less than, equal to, or greater than the key value.
+     */
+    protected int compareKey(final T item, final K key) {
+        final K itemKey = getKey(item);
+        return itemKey == null ? -1 : itemKey.compareTo(key);
+    }
+
+    /**
+     * Determine whether two items share the same key.
+     *
+     * @param item
+     *            item to be checked
+     * @param other
+     *            the other item
+     * @return true if both items have the same key, otherwise false.
+     */
+    protected boolean isSameKey(final T item, final T other) {
+        return Objects.equals(getKey(item), getKey(other));
     }
 
     /**
@@ -101,7 +136,7 @@ public abstract class ItemAccumulator<T, K extends Comparable<K>> implements Ite
         // If haven't read first record yet, then do that now.
         if (lastItem == null) {
             lastItem = reader.read();
-        } else if (getKey(lastItem).compareTo(key) > 0) {
+        } else if (compareKey(lastItem, key) > 0) {
             return new ArrayList<>(0);
         }
 
@@ -176,13 +211,13 @@ public abstract class ItemAccumulator<T, K extends Comparable<K>> implements Ite
             lastItem = reader.read();
         }
 
-        final K lastKey = lastItem == null ? null : getKey(lastItem);
+        final T firstItem = lastItem;
 
         lastItemList = new ArrayList<>();
 
         // Haven't reached EOF for the data,
         // so look for more data for the current key
-        while (lastItem != null && checkEqualKey(lastItem, lastKey)) {
+        while (lastItem != null && isSameKey(lastItem, firstItem)) {
             lastItemList.add(lastItem);
             // Read next record. On EOF, data will be null.
             lastItem = reader.read();
@@ -191,8 +226,45 @@ public abstract class ItemAccumulator<T, K extends Comparable<K>> implements Ite
         return lastItemList;
     }
 
+    /**
+     * Reduce the items of the next key as they are read, without materializing the group (O(1) memory per group for a constant size accumulation).
+     * <p/>
+     * The reader will be positioned on the first record for the next key.
+     *
+     * @param collector
+     *            the fold of the group : initial state (supplier), accumulation (accumulator) and final result (finisher). The combiner is not used.
+     * @return the result of the collector for the next key, or null if there is no more item.
+     * @throws Exception
+     */
+    public <A, R> R readNextGroup(final Collector<? super T, A, R> collector) throws Exception {
+
+        // If haven't read first record yet, then do that now.
+        if (lastItem == null) {
+            lastItem = reader.read();
+        }
+        if (lastItem == null) {
+            return null;
+        }
+
+        final T firstItem = lastItem;
+        final BiConsumer<A, ? super T> accumulator = collector.accumulator();
+        final A state = collector.supplier().get();
+
+        while (lastItem != null && isSameKey(lastItem, firstItem)) {
+            accumulator.accept(state, lastItem);
+            // Read next record. On EOF, data will be null.
+            lastItem = reader.read();
+        }
+
+        return collector.finisher().apply(state);
+    }
+
     @Override
     public void open(final ExecutionContext executionContext) throws ItemStreamException {
+        if (readAheadSize > 0 && reader instanceof ItemStreamReader<T> streamReader && !(reader instanceof ReadAheadItemReader)) {
+            // the reader is drained by its own thread
+            reader = new ReadAheadItemReader<>(streamReader, readAheadSize);
+        }
         if (reader instanceof ItemStream) {
             ((ItemStream) reader).open(executionContext);
         }
@@ -216,6 +288,17 @@ public abstract class ItemAccumulator<T, K extends Comparable<K>> implements Ite
         this.reader = reader;
     }
 
+    /**
+     * Opt-in prefetch mode : when greater than zero and the reader is an {@link ItemStreamReader}, it is drained by a background
+     * {@link ReadAheadItemReader} that buffers up to <code>readAheadSize</code> items.
+     *
+     * @param readAheadSize
+     *            the number of items read ahead (0, the default, disables the prefetch mode)
+     */
+    public void setReadAheadSize(final int readAheadSize) {
+        this.readAheadSize = readAheadSize;
+    }
+
     @Override
     public void afterPropertiesSet() throws Exception {
         Assert.notNull(reader, "reader must be set");
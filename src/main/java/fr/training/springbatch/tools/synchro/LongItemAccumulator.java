@@ -0,0 +1,45 @@
+package fr.training.springbatch.tools.synchro;
+
+import org.springframework.batch.item.ItemReader;
+
+/**
+ * {@link ItemAccumulator} specialization for items identified by a primitive <code>long</code> key.
+ * <p/>
+ * Keys are compared as primitives while reading forward, so no <code>Long</code> is created for each item read. Only {@link #getKey(Object)} boxes the
+ * key, which the caller does once per key searched.
+ *
+ * @param <T>
+ *            The class of the items to be processed
+ *
+ * @author Desprez
+ */
+public abstract class LongItemAccumulator<T> extends ItemAccumulator<T, Long> {
+
+    public LongItemAccumulator(final ItemReader<T> reader) {
+        super(reader);
+    }
+
+    /**
+     * Extract the primitive key of an item.
+     *
+     * @param item
+     * @return the key value for the item
+     */
+    public abstract long getLongKey(T item);
+
+    @Override
+    public Long getKey(final T item) {
+        return getLongKey(item);
+    }
+
+    @Override
+    protected int compareKey(final T item, final Long key) {
+        return Long.compare(getLongKey(item), key);
+    }
+
+    @Override
+    protected boolean isSameKey(final T item, final T other) {
+        return getLongKey(item) == getLongKey(other);
+    }
+
+}
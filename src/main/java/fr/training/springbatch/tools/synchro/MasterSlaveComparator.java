@@ -0,0 +1,71 @@
+package fr.training.springbatch.tools.synchro;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.springframework.util.Assert;
+
+/**
+ * Compare the key of a master item with the key of a slave item directly on their fields, without building key objects (no boxing for primitive keys, no
+ * tuple for composite keys).
+ *
+ * <pre>
+ * MasterSlaveComparator.comparingLong(Order::getCustomerNumber, Line::customerNumber) //
+ *         .thenComparing(Order::getOrderNumber, Line::orderNumber);
+ * </pre>
+ *
+ * @param <M>
+ *            The master Item Type
+ * @param <S>
+ *            The slave Item Type
+ *
+ * @author Desprez
+ */
+@FunctionalInterface
+public interface MasterSlaveComparator<M, S> {
+
+    /**
+     * @return a negative integer, zero, or a positive integer as the master key is less than, equal to, or greater than the slave key.
+     */
+    int compare(M master, S slave);
+
+    /**
+     * Compare the master and slave items on a primitive long key field.
+     */
+    static <M, S> MasterSlaveComparator<M, S> comparingLong(final ToLongFunction<M> masterKey, final ToLongFunction<S> slaveKey) {
+        Assert.notNull(masterKey, "The 'masterKey' may not be null");
+        Assert.notNull(slaveKey, "The 'slaveKey' may not be null");
+        return (master, slave) -> Long.compare(masterKey.applyAsLong(master), slaveKey.applyAsLong(slave));
+    }
+
+    /**
+     * Compare the master and slave items on a {@link Comparable} key field.
+     */
+    static <M, S, U extends Comparable<? super U>> MasterSlaveComparator<M, S> comparing(final Function<M, ? extends U> masterKey,
+            final Function<S, ? extends U> slaveKey) {
+        Assert.notNull(masterKey, "The 'masterKey' may not be null");
+        Assert.notNull(slaveKey, "The 'slaveKey' may not be null");
+        return (master, slave) -> masterKey.apply(master).compareTo(slaveKey.apply(slave));
+    }
+
+    /**
+     * Composite keys : compare on the given comparator when this one finds equal keys.
+     */
+    default MasterSlaveComparator<M, S> thenComparing(final MasterSlaveComparator<M, S> other) {
+        Assert.notNull(other, "The 'other' comparator may not be null");
+        return (master, slave) -> {
+            final int result = compare(master, slave);
+            return result != 0 ? result : other.compare(master, slave);
+        };
+    }
+
+    default MasterSlaveComparator<M, S> thenComparingLong(final ToLongFunction<M> masterKey, final ToLongFunction<S> slaveKey) {
+        return thenComparing(comparingLong(masterKey, slaveKey));
+    }
+
+    default <U extends Comparable<? super U>> MasterSlaveComparator<M, S> thenComparing(final Function<M, ? extends U> masterKey,
+            final Function<S, ? extends U> slaveKey) {
+        return thenComparing(comparing(masterKey, slaveKey));
+    }
+
+}
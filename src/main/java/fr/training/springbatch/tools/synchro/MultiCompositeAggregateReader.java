@@ -0,0 +1,230 @@
+package fr.training.springbatch.tools.synchro;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.NonTransientResourceException;
+import org.springframework.batch.item.ParseException;
+import org.springframework.batch.item.UnexpectedInputException;
+import org.springframework.batch.item.support.AbstractItemStreamItemReader;
+import org.springframework.batch.item.support.SingleItemPeekableItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+/**
+ * <p>
+ * An {@link ItemReader} that synchronizes one master StreamReader with any number of slave StreamReaders (Files or whatever class implements
+ * {@link AbstractItemStreamItemReader}) in a single pass, and returns the master item as an aggregate of all its related slave items.
+ * </p>
+ * <b>All the Streams must share the same key and must be ordered on this key.</b>
+ *
+ * <p>
+ * This is the N-way version of {@link CompositeAggregateReader} : each slave has its own key extractor and its own aggregator. Slaves are kept in a heap
+ * ordered on the key of their next item, so advancing a slave costs O(log n) whatever the number of slaves.
+ * </p>
+ *
+ * <p>
+ * <b>not</b> thread-safe because the underline used {@link SingleItemPeekableItemReader } is not.
+ * </p>
+ *
+ * @param <M>
+ *            The master Item Type (the aggregate root)
+ * @param <K>
+ *            the type of the master item key
+ *
+ * @author Desprez
+ */
+public class MultiCompositeAggregateReader<M, K extends Comparable<K>> extends AbstractItemStreamItemReader<M> implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MultiCompositeAggregateReader.class);
+
+    private AbstractItemStreamItemReader<M> masterItemReader;
+
+    private Function<M, K> masterKeyExtractor;
+
+    private final List<SlaveCursor<M, ?, K>> slaves = new ArrayList<>();
+
+    /**
+     * Slaves that still have items, ordered on the key of their next item.
+     */
+    private final PriorityQueue<SlaveCursor<M, ?, K>> heap = new PriorityQueue<>();
+
+    @Override
+    public M read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
+
+        final M item = masterItemReader.read();
+
+        if (item == null) {
+            return null;
+        }
+        final K masterKey = masterKeyExtractor.apply(item);
+
+        while (!heap.isEmpty()) {
+            final SlaveCursor<M, ?, K> slave = heap.peek();
+
+            // logic to determine if next line in the "lowest" slave relates to same Master object
+            final int keyComparison = slave.key.compareTo(masterKey);
+
+            if (log.isTraceEnabled()) {
+                log.trace("MasterKey {}, slaveKey {} match {}", masterKey, slave.key, keyComparison);
+            }
+
+            if (keyComparison > 0) {
+                // Lowest slave key is greater than master key : aggregate is complete, return it
+                return item;
+            }
+
+            heap.poll();
+            if (keyComparison == 0) {
+                // keys are equals : accumulate the slave item
+                slave.aggregateInto(item);
+            } else {
+                // Slave key is lower than master key : find Slave item forward
+                slave.skip();
+            }
+            if (slave.advance()) {
+                heap.offer(slave);
+            }
+        }
+        return item;
+    }
+
+    @Override
+    public void close() {
+        masterItemReader.close();
+        for (final SlaveCursor<M, ?, K> slave : slaves) {
+            slave.reader.close();
+        }
+        heap.clear();
+    }
+
+    @Override
+    public void open(final ExecutionContext executionContext) {
+        masterItemReader.open(executionContext);
+        heap.clear();
+        for (final SlaveCursor<M, ?, K> slave : slaves) {
+            slave.reader.open(executionContext);
+            try {
+                if (slave.advance()) {
+                    heap.offer(slave);
+                }
+            } catch (final Exception e) {
+                throw new NonTransientResourceException("Unable to peek slave reader", e);
+            }
+        }
+    }
+
+    @Override
+    public void update(final ExecutionContext executionContext) {
+        masterItemReader.update(executionContext);
+        for (final SlaveCursor<M, ?, K> slave : slaves) {
+            slave.reader.update(executionContext);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(masterItemReader, "The 'masterItemReader' may not be null");
+        Assert.notNull(masterKeyExtractor, "The 'masterKeyExtractor' may not be null");
+        Assert.notEmpty(slaves, "At least one slave must be added");
+    }
+
+    /**
+     * Establishes the {@link AbstractItemStreamItemReader<M>} reader that will read master items.
+     *
+     * @param masterItemReader
+     *            {@link AbstractItemStreamItemReader<M>} reader that will read master items.
+     */
+    public void setMasterItemReader(final AbstractItemStreamItemReader<M> masterItemReader) {
+        this.masterItemReader = masterItemReader;
+    }
+
+    /**
+     * The {@link Function<M, K>} used to extract the key of the master item.
+     *
+     * @param masterKeyExtractor
+     *            {@link Function<M, K>} used to extract the key of the master item.
+     */
+    public void setMasterKeyExtractor(final Function<M, K> masterKeyExtractor) {
+        this.masterKeyExtractor = masterKeyExtractor;
+    }
+
+    /**
+     * Add a slave stream to merge with the master stream.
+     * <p>
+     * Typicaly a collection <b>add method</b> as aggregator if the relation between master & slave items is one-to-many and a <b>set method</b> if the
+     * relation between master & slave items is one-to-one.
+     * </p>
+     *
+     * @param slaveItemReader
+     *            {@link AbstractItemStreamItemReader<S>} reader that will read slave items (must be ordered on the key).
+     * @param slaveKeyExtractor
+     *            {@link Function<S, K>} used to extract the key of the slave item.
+     * @param masterAggregator
+     *            {@link BiConsumer<M, S>} function to add/set the slave Item to the master Item.
+     */
+    public <S> void addSlave(final AbstractItemStreamItemReader<S> slaveItemReader, final Function<S, K> slaveKeyExtractor,
+            final BiConsumer<M, S> masterAggregator) {
+        Assert.notNull(slaveItemReader, "The 'slaveItemReader' may not be null");
+        Assert.notNull(slaveKeyExtractor, "The 'slaveKeyExtractor' may not be null");
+        Assert.notNull(masterAggregator, "The 'masterAggregator' may not be null");
+        slaves.add(new SlaveCursor<>(slaves.size(), slaveItemReader, slaveKeyExtractor, masterAggregator));
+    }
+
+    /**
+     * Position of a slave stream : its peekable reader and the key of its next item.
+     */
+    private static final class SlaveCursor<M, S, K extends Comparable<K>> implements Comparable<SlaveCursor<M, S, K>> {
+
+        private final int index;
+
+        private final SingleItemPeekableItemReader<S> reader = new SingleItemPeekableItemReader<>();
+
+        private final Function<S, K> keyExtractor;
+
+        private final BiConsumer<M, S> aggregator;
+
+        private K key;
+
+        private SlaveCursor(final int index, final AbstractItemStreamItemReader<S> delegate, final Function<S, K> keyExtractor,
+                final BiConsumer<M, S> aggregator) {
+            this.index = index;
+            reader.setDelegate(delegate);
+            this.keyExtractor = keyExtractor;
+            this.aggregator = aggregator;
+        }
+
+        /**
+         * Peek the next slave item and keep its key.
+         *
+         * @return false if the slave stream is exhausted
+         */
+        private boolean advance() throws Exception {
+            final S next = reader.peek();
+            key = next == null ? null : keyExtractor.apply(next);
+            return next != null;
+        }
+
+        private void aggregateInto(final M master) throws Exception {
+            aggregator.accept(master, reader.read());
+        }
+
+        private void skip() throws Exception {
+            reader.read();
+        }
+
+        @Override
+        public int compareTo(final SlaveCursor<M, S, K> other) {
+            final int keyComparison = key.compareTo(other.key);
+            // on equal keys keep the declaration order of the slaves
+            return keyComparison != 0 ? keyComparison : Integer.compare(index, other.index);
+        }
+    }
+
+}
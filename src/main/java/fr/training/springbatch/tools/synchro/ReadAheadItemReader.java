@@ -0,0 +1,231 @@
+package fr.training.springbatch.tools.synchro;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.NonTransientResourceException;
+import org.springframework.batch.item.support.AbstractItemStreamItemReader;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * <p>
+ * An {@link ItemReader} that drains its delegate from a dedicated background thread into a bounded ring buffer, so that the delegate parsing (I/O, line
+ * tokenizing, mapping...) overlaps with the processing done on the step thread.
+ * </p>
+ *
+ * <p>
+ * The items are buffered by batches, and the delegate state is captured once after each batch. {@link #update(ExecutionContext)} records the state before
+ * the batch being consumed and the number of items of this batch <b>already consumed</b> by the step thread, which are skipped on restart : the restart
+ * position stays consistent whatever the number of items buffered ahead.
+ * </p>
+ *
+ * <p>
+ * Any failure of the delegate (exception or error) is rethrown by {@link #read()} after the items read before it.
+ * </p>
+ *
+ * <p>
+ * <b>not</b> thread-safe on the consumer side : it is meant to be used by a single step thread (like the {@link CompositeAggregateReader}).
+ * </p>
+ *
+ * @param <T>
+ *            The Item Type
+ *
+ * @author Desprez
+ */
+public class ReadAheadItemReader<T> extends AbstractItemStreamItemReader<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadAheadItemReader.class);
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Maximum number of items read between two captures of the delegate state.
+     */
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private static final String SKIP_COUNT = "read.ahead.skip.count";
+
+    private final ItemStreamReader<T> delegate;
+
+    private final int batchSize;
+
+    /**
+     * Maximum number of batches read ahead.
+     */
+    private final int queueCapacity;
+
+    private BlockingQueue<Batch<T>> buffer;
+
+    private Thread producer;
+
+    private volatile boolean running;
+
+    /**
+     * State of the delegate before the batch being consumed by the step thread.
+     */
+    private ExecutionContext batchStartState;
+
+    private Batch<T> current;
+
+    /**
+     * Number of items of the current batch consumed by the step thread.
+     */
+    private int position;
+
+    private boolean exhausted;
+
+    /**
+     * @param delegate
+     *            the {@link ItemStreamReader} to drain in background (if named, its name prefixes the key of the skip count of this reader).
+     * @param bufferSize
+     *            the maximum number of items read ahead.
+     */
+    public ReadAheadItemReader(final ItemStreamReader<T> delegate, final int bufferSize) {
+        Assert.notNull(delegate, "The 'delegate' may not be null");
+        Assert.isTrue(bufferSize > 0, "The 'bufferSize' must be greater than zero");
+        this.delegate = delegate;
+        batchSize = Math.min(bufferSize, MAX_BATCH_SIZE);
+        queueCapacity = (bufferSize + batchSize - 1) / batchSize;
+        final String delegateName = delegate instanceof final ItemStreamSupport support ? support.getName() : null;
+        setName(delegateName != null ? delegateName : ClassUtils.getShortName(ReadAheadItemReader.class));
+    }
+
+    @Override
+    public T read() throws Exception {
+        if (exhausted) {
+            return null;
+        }
+        while (current == null || position == current.items().size()) {
+            if (current != null) {
+                if (current.error() != null) {
+                    exhausted = true;
+                    return rethrow(current.error());
+                }
+                // whole batch consumed
+                batchStartState = current.state();
+                position = 0;
+                if (current.end()) {
+                    exhausted = true;
+                    return null;
+                }
+            }
+            current = buffer.take();
+            position = 0;
+        }
+        return current.items().get(position++);
+    }
+
+    private static <T> T rethrow(final Throwable error) throws Exception {
+        if (error instanceof final Error e) {
+            throw e;
+        }
+        throw (Exception) error;
+    }
+
+    @Override
+    public void open(final ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+
+        // items consumed after the last state capture of the previous execution
+        final int skipCount = executionContext.getInt(getExecutionContextKey(SKIP_COUNT), 0);
+        try {
+            for (int i = 0; i < skipCount && delegate.read() != null; i++) {
+                // already consumed
+            }
+        } catch (final Exception e) {
+            throw new ItemStreamException("Unable to skip the " + skipCount + " items already consumed", e);
+        }
+
+        batchStartState = snapshot();
+        current = null;
+        position = 0;
+        exhausted = false;
+        buffer = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        producer = new Thread(this::produce, "read-ahead-" + threadCount.incrementAndGet());
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    @Override
+    public void update(final ExecutionContext executionContext) throws ItemStreamException {
+        for (final Map.Entry<String, Object> entry : batchStartState.entrySet()) {
+            executionContext.put(entry.getKey(), entry.getValue());
+        }
+        executionContext.putInt(getExecutionContextKey(SKIP_COUNT), position);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        running = false;
+        if (producer != null) {
+            producer.interrupt();
+            try {
+                producer.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            producer = null;
+        }
+        buffer = null;
+        current = null;
+        delegate.close();
+    }
+
+    /**
+     * Background loop : read the delegate by batches until its end (or until the reader is closed), blocking while the buffer is full. Whatever the failure,
+     * a batch carrying it is posted, so the step thread never waits for ever.
+     */
+    private void produce() {
+        try {
+            while (running) {
+                final List<T> items = new ArrayList<>(batchSize);
+                final Batch<T> batch;
+                try {
+                    T item = null;
+                    while (items.size() < batchSize && (item = delegate.read()) != null) {
+                        items.add(item);
+                    }
+                    batch = new Batch<>(items, snapshot(), item == null, null);
+                } catch (final Throwable e) {
+                    buffer.put(new Batch<>(items, null, true, e));
+                    return;
+                }
+                buffer.put(batch);
+                if (batch.end()) {
+                    return;
+                }
+            }
+        } catch (final InterruptedException e) {
+            log.debug("Read-ahead interrupted");
+        }
+    }
+
+    private ExecutionContext snapshot() {
+        final ExecutionContext state = new ExecutionContext();
+        try {
+            delegate.update(state);
+        } catch (final ItemStreamException e) {
+            throw new NonTransientResourceException("Unable to capture the delegate state", e);
+        }
+        return state;
+    }
+
+    /**
+     * Items read together with the delegate state right after the last one, or with the failure that ended the read.
+     */
+    private record Batch<T>(List<T> items, ExecutionContext state, boolean end, Throwable error) {
+    }
+
+}
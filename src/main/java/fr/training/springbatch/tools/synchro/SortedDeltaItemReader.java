@@ -0,0 +1,160 @@
+package fr.training.springbatch.tools.synchro;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.support.AbstractItemStreamItemReader;
+import org.springframework.batch.item.support.SingleItemPeekableItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import fr.training.springbatch.tools.synchro.Delta.Type;
+
+/**
+ * <p>
+ * An {@link ItemReader} that computes the delta between the previous and the current snapshot of a data set (typically the files received at day N-1 and at
+ * day N) in a single merge pass on both streams, without loading them in a database : each key only in the current snapshot is returned as
+ * {@link Type#ADDED}, each key only in the previous snapshot as {@link Type#REMOVED}, and each key in both as {@link Type#UNCHANGED}.
+ * </p>
+ * <p>
+ * When a <code>contentHashFunction</code> is set (e.g. a {@link fr.training.springbatch.tools.hash.XxHash64} of the non key fields), a key in both snapshots
+ * whose items have another hash is returned as {@link Type#MODIFIED} : a single long is compared per key instead of all the fields of wide records.
+ * </p>
+ * <b>The 2 Streams must be ordered on a unique key</b> (an {@link IllegalStateException} is thrown otherwise).
+ *
+ * <p>
+ * Restartable when both readers save their state. <b>not</b> thread-safe because the underline used {@link SingleItemPeekableItemReader } is not.
+ * </p>
+ *
+ * @param <T>
+ *            The item type of the snapshots
+ * @param <K>
+ *            the type of the item key
+ *
+ * @author Desprez
+ */
+public class SortedDeltaItemReader<T, K extends Comparable<K>> extends AbstractItemStreamItemReader<Delta<T>> implements InitializingBean {
+
+    private final SingleItemPeekableItemReader<T> previousItemReader = new SingleItemPeekableItemReader<>();
+
+    private final SingleItemPeekableItemReader<T> currentItemReader = new SingleItemPeekableItemReader<>();
+
+    private Function<T, K> keyExtractor;
+
+    private ToLongFunction<T> contentHashFunction;
+
+    private K lastPreviousKey;
+
+    private K lastCurrentKey;
+
+    @Override
+    public Delta<T> read() throws Exception {
+        final T previous = previousItemReader.peek();
+        final T current = currentItemReader.peek();
+        if (previous == null && current == null) {
+            return null;
+        }
+        final int keyComparison;
+        if (previous == null) {
+            keyComparison = 1;
+        } else if (current == null) {
+            keyComparison = -1;
+        } else {
+            keyComparison = keyExtractor.apply(previous).compareTo(keyExtractor.apply(current));
+        }
+
+        if (keyComparison < 0) {
+            // previous key lower than current key : not in the current snapshot any more
+            return new Delta<>(Type.REMOVED, readPrevious(), null);
+        }
+        if (keyComparison > 0) {
+            return new Delta<>(Type.ADDED, null, readCurrent());
+        }
+        final T previousItem = readPrevious();
+        final T currentItem = readCurrent();
+        if (contentHashFunction != null && contentHashFunction.applyAsLong(previousItem) != contentHashFunction.applyAsLong(currentItem)) {
+            return new Delta<>(Type.MODIFIED, previousItem, currentItem);
+        }
+        return new Delta<>(Type.UNCHANGED, previousItem, currentItem);
+    }
+
+    private T readPrevious() throws Exception {
+        final T item = previousItemReader.read();
+        lastPreviousKey = checkOrder(lastPreviousKey, keyExtractor.apply(item), "previous");
+        return item;
+    }
+
+    private T readCurrent() throws Exception {
+        final T item = currentItemReader.read();
+        lastCurrentKey = checkOrder(lastCurrentKey, keyExtractor.apply(item), "current");
+        return item;
+    }
+
+    private static <K extends Comparable<K>> K checkOrder(final K lastKey, final K key, final String snapshot) {
+        if (lastKey != null && lastKey.compareTo(key) >= 0) {
+            throw new IllegalStateException("The " + snapshot + " snapshot is not sorted on a unique key : " + key + " read after " + lastKey);
+        }
+        return key;
+    }
+
+    @Override
+    public void open(final ExecutionContext executionContext) {
+        previousItemReader.open(executionContext);
+        currentItemReader.open(executionContext);
+        lastPreviousKey = null;
+        lastCurrentKey = null;
+    }
+
+    @Override
+    public void update(final ExecutionContext executionContext) {
+        previousItemReader.update(executionContext);
+        currentItemReader.update(executionContext);
+    }
+
+    @Override
+    public void close() {
+        previousItemReader.close();
+        currentItemReader.close();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(keyExtractor, "The 'keyExtractor' may not be null");
+    }
+
+    /**
+     * @param previousItemReader
+     *            {@link AbstractItemStreamItemReader<T>} reader of the previous snapshot (sorted on the key).
+     */
+    public void setPreviousItemReader(final AbstractItemStreamItemReader<T> previousItemReader) {
+        this.previousItemReader.setDelegate(previousItemReader);
+    }
+
+    /**
+     * @param currentItemReader
+     *            {@link AbstractItemStreamItemReader<T>} reader of the current snapshot (sorted on the key).
+     */
+    public void setCurrentItemReader(final AbstractItemStreamItemReader<T> currentItemReader) {
+        this.currentItemReader.setDelegate(currentItemReader);
+    }
+
+    /**
+     * @param keyExtractor
+     *            {@link Function<T, K>} used to extract the key of the items of both snapshots.
+     */
+    public void setKeyExtractor(final Function<T, K> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * @param contentHashFunction
+     *            {@link ToLongFunction<T>} used to hash the content (the non key fields) of the items of both snapshots, to detect the modified items
+     *            (optional).
+     */
+    public void setContentHashFunction(final ToLongFunction<T> contentHashFunction) {
+        this.contentHashFunction = contentHashFunction;
+    }
+
+}
@@ -0,0 +1,269 @@
+package fr.training.springbatch.tools.tasklet;
+
+import static org.springframework.batch.repeat.RepeatStatus.FINISHED;
+import static org.springframework.util.Assert.isTrue;
+import static org.springframework.util.Assert.notNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+/**
+ * A {link Tasklet} that sorts a flat file on a key extracted from each line, so that unsorted files can feed the synchro readers (CompositeAggregateReader,
+ * ItemAccumulator...) that require input sorted on the key.
+ * <p>
+ * External merge sort with bounded memory : the input is read by runs of at most <code>runSize</code> lines, each run is sorted in memory and spilled to a
+ * temporary file, then the runs are merged (k-way merge). The sort is stable and the header lines are copied as is.
+ * </p>
+ * <p>
+ * At most <code>maxMergeFanIn</code> runs are merged at a time, so the number of open files and of read buffers stays bounded : when there are more runs,
+ * consecutive runs are first merged into intermediate runs, in as many passes as needed.
+ * </p>
+ *
+ * @param <K>
+ *            the type of the sort key
+ */
+public class ExternalSortTasklet<K extends Comparable<K>> implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(ExternalSortTasklet.class);
+
+    private String inputFile;
+
+    private String outputFile;
+
+    private Function<String, K> keyExtractor;
+
+    private int linesToSkip = 0;
+
+    private int runSize = 100_000;
+
+    private int maxMergeFanIn = 64;
+
+    private String tempDirectory = System.getProperty("java.io.tmpdir");
+
+    private Charset encoding = StandardCharsets.UTF_8;
+
+    @Override
+    public RepeatStatus execute(final StepContribution contribution, final ChunkContext chunkContext) throws Exception {
+        checkParameters();
+
+        final List<Path> runs = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(inputFile), encoding)) {
+            final List<String> header = new ArrayList<>();
+            for (int i = 0; i < linesToSkip; i++) {
+                final String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                header.add(line);
+            }
+
+            long count = 0;
+            List<KeyedLine<K>> run = readRun(reader);
+            if (run.size() < runSize) {
+                // the whole file fits in memory : no temporary file needed
+                write(Paths.get(outputFile), header, run);
+                count = run.size();
+            } else {
+                while (!run.isEmpty()) {
+                    count += run.size();
+                    runs.add(write(Files.createTempFile(Paths.get(tempDirectory), "sort-run-", ".tmp"), List.of(), run));
+                    run = readRun(reader);
+                }
+                log.debug("{} lines sorted in {} runs, merging to {}", count, runs.size(), outputFile);
+                merge(mergeIntermediateRuns(runs), Paths.get(outputFile), header);
+            }
+            contribution.incrementWriteCount(count);
+        } finally {
+            for (final Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+        return FINISHED;
+    }
+
+    /**
+     * Read at most <code>runSize</code> lines and sort them on their key (stable sort).
+     */
+    private List<KeyedLine<K>> readRun(final BufferedReader reader) throws IOException {
+        final List<KeyedLine<K>> run = new ArrayList<>();
+        String line;
+        while (run.size() < runSize && (line = reader.readLine()) != null) {
+            run.add(new KeyedLine<>(keyExtractor.apply(line), line, run.size()));
+        }
+        run.sort(Comparator.naturalOrder());
+        return run;
+    }
+
+    private Path write(final Path file, final List<String> header, final List<KeyedLine<K>> lines) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, encoding)) {
+            for (final String line : header) {
+                writer.write(line);
+                writer.newLine();
+            }
+            for (final KeyedLine<K> line : lines) {
+                writer.write(line.text());
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Merge groups of <code>maxMergeFanIn</code> consecutive runs into intermediate runs, until there are no more than <code>maxMergeFanIn</code> runs to
+     * merge. The intermediate runs are added to the runs to delete at the end.
+     *
+     * @return the runs of the final merge, in input order.
+     */
+    private List<Path> mergeIntermediateRuns(final List<Path> runs) throws IOException {
+        List<Path> pending = new ArrayList<>(runs);
+        while (pending.size() > maxMergeFanIn) {
+            final List<Path> merged = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i += maxMergeFanIn) {
+                final List<Path> group = pending.subList(i, Math.min(i + maxMergeFanIn, pending.size()));
+                if (group.size() == 1) {
+                    merged.add(group.get(0));
+                    continue;
+                }
+                final Path run = Files.createTempFile(Paths.get(tempDirectory), "sort-run-", ".tmp");
+                runs.add(run);
+                merge(group, run, List.of());
+                for (final Path mergedRun : group) {
+                    Files.deleteIfExists(mergedRun);
+                }
+                merged.add(run);
+            }
+            log.debug("{} runs merged into {} runs", pending.size(), merged.size());
+            pending = merged;
+        }
+        return pending;
+    }
+
+    /**
+     * k-way merge of the sorted runs : a heap holds the current line of each run, on equal keys the first run wins to keep the sort stable.
+     */
+    private void merge(final List<Path> runs, final Path target, final List<String> header) throws IOException {
+        final List<BufferedReader> readers = new ArrayList<>(runs.size());
+        try (BufferedWriter writer = Files.newBufferedWriter(target, encoding)) {
+            for (final String line : header) {
+                writer.write(line);
+                writer.newLine();
+            }
+
+            final PriorityQueue<KeyedLine<K>> heap = new PriorityQueue<>(runs.size());
+            for (int i = 0; i < runs.size(); i++) {
+                final BufferedReader reader = Files.newBufferedReader(runs.get(i), encoding);
+                readers.add(reader);
+                next(reader, i, heap);
+            }
+            while (!heap.isEmpty()) {
+                final KeyedLine<K> line = heap.poll();
+                writer.write(line.text());
+                writer.newLine();
+                next(readers.get(line.index()), line.index(), heap);
+            }
+        } finally {
+            for (final BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private void next(final BufferedReader reader, final int runIndex, final PriorityQueue<KeyedLine<K>> heap) throws IOException {
+        final String line = reader.readLine();
+        if (line != null) {
+            heap.offer(new KeyedLine<>(keyExtractor.apply(line), line, runIndex));
+        }
+    }
+
+    public void checkParameters() {
+        notNull(inputFile, "inputFile is required");
+        notNull(outputFile, "outputFile is required");
+        notNull(keyExtractor, "keyExtractor is required");
+        isTrue(runSize > 0, "runSize must be greater than zero");
+        isTrue(maxMergeFanIn > 1, "maxMergeFanIn must be greater than one");
+        isTrue(!Paths.get(inputFile).toAbsolutePath().equals(Paths.get(outputFile).toAbsolutePath()), "outputFile must not be the inputFile");
+    }
+
+    public void setInputFile(final String inputFile) {
+        this.inputFile = inputFile;
+    }
+
+    public void setOutputFile(final String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+    /**
+     * @param keyExtractor
+     *            the function that extracts the sort key from a line.
+     */
+    public void setKeyExtractor(final Function<String, K> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * @param linesToSkip
+     *            the number of header lines, copied unsorted at the beginning of the output file.
+     */
+    public void setLinesToSkip(final int linesToSkip) {
+        this.linesToSkip = linesToSkip;
+    }
+
+    /**
+     * @param runSize
+     *            the maximum number of lines sorted in memory (default 100 000).
+     */
+    public void setRunSize(final int runSize) {
+        this.runSize = runSize;
+    }
+
+    /**
+     * @param maxMergeFanIn
+     *            the maximum number of runs merged at a time, i.e. of files open at the same time (default 64).
+     */
+    public void setMaxMergeFanIn(final int maxMergeFanIn) {
+        this.maxMergeFanIn = maxMergeFanIn;
+    }
+
+    /**
+     * @param tempDirectory
+     *            the directory of the sorted runs (default java.io.tmpdir).
+     */
+    public void setTempDirectory(final String tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+
+    public void setEncoding(final Charset encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * A line with its key, and its position in the run (while sorting a run) or its run index (while merging) to keep the sort stable.
+     */
+    private record KeyedLine<K extends Comparable<K>>(K key, String text, int index) implements Comparable<KeyedLine<K>> {
+
+        @Override
+        public int compareTo(final KeyedLine<K> other) {
+            final int result = key.compareTo(other.key);
+            return result != 0 ? result : Integer.compare(index, other.index);
+        }
+    }
+
+}
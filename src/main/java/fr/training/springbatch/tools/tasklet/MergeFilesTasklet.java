@@ -0,0 +1,252 @@
+package fr.training.springbatch.tools.tasklet;
+
+import static org.springframework.batch.repeat.RepeatStatus.FINISHED;
+import static org.springframework.util.Assert.isTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * A {link Tasklet} that concatenates files into a single one with {@link FileChannel#transferTo}, so the bytes are copied by the operating system without
+ * being decoded nor parsed (the concatenation of key-ordered partition outputs gives a globally ordered file).
+ * <p>
+ * The files are either given in order (<code>inputFiles</code>), or taken from the output files of the partitions of a step (<code>stepName</code>) in the
+ * partition order : the file names are read from the <code>outputKeyName</code> key of the partition step execution contexts (see OutputFileListener).
+ * </p>
+ * The first <code>headerLines</code> of each file but the first and the last <code>footerLines</code> of each file but the last are dropped, so the merged
+ * file has a single header and a single footer.
+ */
+public class MergeFilesTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(MergeFilesTasklet.class);
+
+    private static final byte LF = '\n';
+
+    /**
+     * partition9 before partition10
+     */
+    private static final Comparator<String> PARTITION_ORDER = Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    private List<String> inputFiles;
+
+    private String stepName;
+
+    private String outputKeyName = "outputFile";
+
+    private JobExplorer jobExplorer;
+
+    private String outputFile;
+
+    private int headerLines = 0;
+
+    private int footerLines = 0;
+
+    private boolean deleteInputs = false;
+
+    @Override
+    public RepeatStatus execute(final StepContribution contribution, final ChunkContext chunkContext) throws Exception {
+        checkParameters();
+
+        final List<Path> inputs = inputFiles != null ? inputFiles.stream().map(Paths::get).toList()
+                : partitionFiles(chunkContext.getStepContext().getStepExecution().getJobExecution());
+
+        final Path output = Paths.get(outputFile);
+        for (final Path input : inputs) {
+            isTrue(!input.toAbsolutePath().normalize().equals(output.toAbsolutePath().normalize()), "The outputFile can't be one of the merged files : " + input);
+        }
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        long size = 0;
+        try (FileChannel target = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < inputs.size(); i++) {
+                try (FileChannel source = FileChannel.open(inputs.get(i), StandardOpenOption.READ)) {
+                    final long start = i == 0 ? 0 : lineStart(source, headerLines);
+                    final long end = i == inputs.size() - 1 ? source.size() : footerStart(source, footerLines);
+                    transfer(source, start, end, target);
+                    if (end > start && i < inputs.size() - 1 && lastByte(source, end) != LF) {
+                        // the next file must start on a new line
+                        target.write(ByteBuffer.wrap(new byte[] { LF }));
+                    }
+                    contribution.incrementReadCount();
+                }
+            }
+            size = target.size();
+        }
+        log.info("{} files merged into {} ({} bytes)", inputs.size(), output, size);
+
+        if (deleteInputs) {
+            for (final Path input : inputs) {
+                Files.deleteIfExists(input);
+            }
+        }
+        contribution.incrementWriteCount(1);
+        return FINISHED;
+    }
+
+    /**
+     * The partition output files in partition order. When a {@link JobExplorer} is set, the partitions completed by the previous executions of a restarted
+     * job are included.
+     */
+    private List<Path> partitionFiles(final JobExecution jobExecution) throws IOException {
+        final List<JobExecution> jobExecutions = jobExplorer != null ? jobExplorer.getJobExecutions(jobExecution.getJobInstance()) : List.of(jobExecution);
+        final Map<String, StepExecution> partitions = new TreeMap<>(PARTITION_ORDER);
+        for (final JobExecution execution : jobExecutions) {
+            for (final StepExecution stepExecution : execution.getStepExecutions()) {
+                if (stepExecution.getStepName().startsWith(stepName + ":") && stepExecution.getExecutionContext().containsKey(outputKeyName)) {
+                    // last execution of each partition
+                    partitions.merge(stepExecution.getStepName(), stepExecution, (a, b) -> a.getId() > b.getId() ? a : b);
+                }
+            }
+        }
+        final List<Path> files = new ArrayList<>(partitions.size());
+        for (final StepExecution stepExecution : partitions.values()) {
+            files.add(ResourceUtils.getFile(stepExecution.getExecutionContext().getString(outputKeyName)).toPath());
+        }
+        return files;
+    }
+
+    private static void transfer(final FileChannel source, final long start, final long end, final FileChannel target) throws IOException {
+        long position = start;
+        while (position < end) {
+            // transferTo may copy less than asked
+            position += source.transferTo(position, end - position, target);
+        }
+    }
+
+    /**
+     * @return the offset of the line following the first <code>lines</code> lines (file size if the file is shorter).
+     */
+    private static long lineStart(final FileChannel channel, final int lines) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        long offset = 0;
+        int count = 0;
+        while (count < lines) {
+            buffer.clear();
+            final int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == LF && ++count == lines) {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return offset;
+    }
+
+    /**
+     * @return the offset of the first of the last <code>lines</code> lines (0 if the file is shorter).
+     */
+    private static long footerStart(final FileChannel channel, final int lines) throws IOException {
+        long end = channel.size();
+        if (lines == 0) {
+            return end;
+        }
+        // a missing line feed at the end of the file doesn't make an extra line
+        int count = end > 0 && lastByte(channel, end) == LF ? -1 : 0;
+        final ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        while (end > 0) {
+            final long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                // read the whole block
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == LF && ++count == lines) {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    private static byte lastByte(final FileChannel channel, final long end) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        channel.read(buffer, end - 1);
+        return buffer.get(0);
+    }
+
+    public void checkParameters() {
+        isTrue(inputFiles != null || stepName != null, "inputFiles or stepName is required");
+        isTrue(outputFile != null, "outputFile is required");
+        isTrue(headerLines >= 0 && footerLines >= 0, "headerLines and footerLines must not be negative");
+    }
+
+    /**
+     * @param inputFiles
+     *            the files to merge, in order.
+     */
+    public void setInputFiles(final List<String> inputFiles) {
+        this.inputFiles = inputFiles;
+    }
+
+    /**
+     * @param stepName
+     *            the name of the partitioned step whose output files are merged.
+     */
+    public void setStepName(final String stepName) {
+        this.stepName = stepName;
+    }
+
+    /**
+     * @param outputKeyName
+     *            the key of the output file name in the partition step execution contexts (default <code>outputFile</code>).
+     */
+    public void setOutputKeyName(final String outputKeyName) {
+        this.outputKeyName = outputKeyName;
+    }
+
+    /**
+     * @param jobExplorer
+     *            used to find the partitions of the previous executions of a restarted job.
+     */
+    public void setJobExplorer(final JobExplorer jobExplorer) {
+        this.jobExplorer = jobExplorer;
+    }
+
+    public void setOutputFile(final String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+    public void setHeaderLines(final int headerLines) {
+        this.headerLines = headerLines;
+    }
+
+    public void setFooterLines(final int footerLines) {
+        this.footerLines = footerLines;
+    }
+
+    /**
+     * @param deleteInputs
+     *            delete the merged files once the output is complete (default false).
+     */
+    public void setDeleteInputs(final boolean deleteInputs) {
+        this.deleteInputs = deleteInputs;
+    }
+
+}
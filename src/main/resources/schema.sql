@@ -30,7 +30,8 @@ CREATE TABLE transaction
 
 DROP SEQUENCE IF EXISTS batch_staging_seq ;
 
-CREATE SEQUENCE batch_staging_seq;
+-- the increment is the id pool size of the staging writer (PooledDataFieldMaxValueIncrementer reads it at startup)
+CREATE SEQUENCE batch_staging_seq INCREMENT BY 100;
 
 DROP TABLE IF EXISTS batch_staging ;
 
@@ -39,7 +40,9 @@ CREATE TABLE batch_staging
 	id BIGINT  NOT NULL PRIMARY KEY ,
 	job_id BIGINT NOT NULL,
 	value_ BYTEA NOT NULL,
-	processed CHAR(1) NOT NULL
+	processed CHAR(1) NOT NULL,
+	claimed_by VARCHAR(100),
+	claimed_until TIMESTAMP
   );
 
 
@@ -64,6 +67,7 @@ CREATE TABLE yesterday_stock
   (
      number     BIGINT NOT NULL,
      label      VARCHAR(50),
+     content_hash BIGINT,
      PRIMARY KEY (number)
   );
 
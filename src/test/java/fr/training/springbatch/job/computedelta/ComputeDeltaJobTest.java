@@ -51,6 +51,7 @@ class ComputeDeltaJobTest {
         assertThat(jobExec.getStatus()).isEqualTo(BatchStatus.COMPLETED);
         assertThat(JdbcTestUtils.countRowsInTable(jdbcTemplate, "yesterday_stock")).isEqualTo(7);
         assertWriteCount(jobExec, "process-added-step", 7);
+        assertWriteCount(jobExec, "process-modified-step", 0);
 
         jobParameters = new JobParametersBuilder() //
                 .addString("today-stock-file", TODAY_FILE) //
@@ -64,6 +65,22 @@ class ComputeDeltaJobTest {
         assertThat(JdbcTestUtils.countRowsInTable(jdbcTemplate, "yesterday_stock")).isEqualTo(8);
         assertWriteCount(jobExec, "process-added-step", 4);
         assertWriteCount(jobExec, "process-removed-step", 3);
+        assertWriteCount(jobExec, "process-modified-step", 1);
+
+        // Given : rows stored before the content hashes
+        jdbcTemplate.update("UPDATE yesterday_stock SET content_hash = NULL");
+        jobParameters = new JobParametersBuilder(testUtils.getUniqueJobParameters()) //
+                .addString("today-stock-file", TODAY_FILE) //
+                .toJobParameters();
+
+        // When
+        jobExec = testUtils.launchJob(jobParameters);
+
+        // Then : same content, but no hash to compare with
+        assertThat(jobExec.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertWriteCount(jobExec, "process-added-step", 0);
+        assertWriteCount(jobExec, "process-removed-step", 0);
+        assertWriteCount(jobExec, "process-modified-step", 8);
     }
 
     private void assertWriteCount(final JobExecution jobExec, final String stepName, final int expectedWriteCounts) {
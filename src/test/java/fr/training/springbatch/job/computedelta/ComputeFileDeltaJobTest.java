@@ -0,0 +1,58 @@
+package fr.training.springbatch.job.computedelta;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import fr.training.springbatch.job.BatchTestConfiguration;
+
+@ActiveProfiles("test")
+@SpringBatchTest
+@SpringBootTest(classes = { BatchTestConfiguration.class, ComputeFileDeltaJobConfig.class }, properties = { "spring.batch.job.enabled=false",
+        "spring.batch.job.names=compute-file-delta-job" })
+class ComputeFileDeltaJobTest {
+
+    private static final String YESTERDAY_FILE = "src/test/resources/datas/stock/yesterday-stock.csv";
+
+    private static final String TODAY_FILE = "src/test/resources/datas/stock/today-stock.csv";
+
+    private static final String OUTPUT_PATH = "target/output/delta/";
+
+    @Autowired
+    private JobLauncherTestUtils testUtils;
+
+    @Test
+    void launch_CompareFileJob_nominal_should_success() throws Exception {
+        // Given
+        final JobParameters jobParameters = new JobParametersBuilder(testUtils.getUniqueJobParameters()) //
+                .addString("yesterday-stock-file", YESTERDAY_FILE) //
+                .addString("today-stock-file", TODAY_FILE) //
+                .addString("output-path", OUTPUT_PATH) //
+                .toJobParameters();
+        // When
+        final JobExecution jobExec = testUtils.launchJob(jobParameters);
+
+        // Then
+        assertThat(jobExec.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        final StepExecution stepExec = jobExec.getStepExecutions().iterator().next();
+        assertThat(stepExec.getReadCount()).isEqualTo(11);
+        assertThat(Files.readAllLines(Paths.get(OUTPUT_PATH + "added-stock.csv"))).containsExactly("3;Cherries", "5;Lemons", "8;Peach", "11;Watermelons");
+        assertThat(Files.readAllLines(Paths.get(OUTPUT_PATH + "removed-stock.csv"))).containsExactly("1;Apples", "7;Oranges", "9;Pears");
+        assertThat(Files.readAllLines(Paths.get(OUTPUT_PATH + "unchanged-stock.csv"))).containsExactly("2;Bananas", "4;Kiwis", "10;Pineapples");
+        assertThat(Files.readAllLines(Paths.get(OUTPUT_PATH + "modified-stock.csv"))).containsExactly("6;Mango");
+    }
+
+}
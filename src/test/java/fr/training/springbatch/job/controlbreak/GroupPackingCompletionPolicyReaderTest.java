@@ -0,0 +1,123 @@
+package fr.training.springbatch.job.controlbreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.item.support.SingleItemPeekableItemReader;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+
+class GroupPackingCompletionPolicyReaderTest {
+
+    private static final int GROUP_COUNT = 100;
+
+    private static final int CHUNK_SIZE = 10;
+
+    record Item(int group, int rank) {
+    }
+
+    private EmbeddedDatabase database;
+
+    private JdbcTransactionManager transactionManager;
+
+    private JobRepository jobRepository;
+
+    @BeforeEach
+    void createJobRepository() throws Exception {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        transactionManager = new JdbcTransactionManager(database);
+        final JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(database);
+        factory.setTransactionManager(transactionManager);
+        factory.afterPropertiesSet();
+        jobRepository = factory.getObject();
+    }
+
+    @AfterEach
+    void shutdown() {
+        database.shutdown();
+    }
+
+    @Test
+    void chunks_should_pack_whole_groups_until_the_chunk_size() throws Exception {
+        // Given : many small groups of 1 to 5 items
+        final List<Item> items = new ArrayList<>();
+        for (int group = 0; group < GROUP_COUNT; group++) {
+            for (int rank = 0; rank <= group % 5; rank++) {
+                items.add(new Item(group, rank));
+            }
+        }
+        final List<List<Item>> chunks = new ArrayList<>();
+        final Step step = step(items, chunks);
+
+        // When
+        final StepExecution stepExecution = execute(step);
+
+        // Then
+        assertThat(stepExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(chunks.stream().flatMap(List::stream).toList()).containsExactlyElementsOf(items);
+
+        final Set<Integer> writtenGroups = new HashSet<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            final List<Item> chunk = chunks.get(i);
+            final List<Integer> groups = chunk.stream().map(Item::group).distinct().toList();
+            // no group split across chunks
+            assertThat(Collections.disjoint(groups, writtenGroups)).isTrue();
+            writtenGroups.addAll(groups);
+            if (i < chunks.size() - 1) {
+                // closed at the first key break after the chunk size : without its last group, the chunk is below the chunk size
+                final int lastGroup = groups.get(groups.size() - 1);
+                assertThat(chunk).hasSizeGreaterThanOrEqualTo(CHUNK_SIZE);
+                assertThat(chunk.stream().filter(item -> item.group() != lastGroup).count()).isLessThan(CHUNK_SIZE);
+            }
+        }
+        assertThat(writtenGroups).hasSize(GROUP_COUNT);
+        // one commit for several groups
+        assertThat(stepExecution.getCommitCount()).isLessThan(GROUP_COUNT / 3);
+    }
+
+    private Step step(final List<Item> items, final List<List<Item>> chunks) {
+        final SingleItemPeekableItemReader<Item> peekableReader = new SingleItemPeekableItemReader<>();
+        peekableReader.setDelegate(new ListItemReader<>(items));
+        final GroupPackingCompletionPolicyReader<Item> reader = new GroupPackingCompletionPolicyReader<>(CHUNK_SIZE);
+        reader.setDelegate(peekableReader);
+        reader.setBreakKeyStrategy((item1, item2) -> item1.group() != item2.group());
+
+        return new StepBuilder("group-packing-step", jobRepository) //
+                .<Item, Item> chunk(reader, transactionManager) //
+                .reader(reader) //
+                .writer(chunk -> chunks.add(new ArrayList<>(chunk.getItems()))) //
+                .build();
+    }
+
+    private StepExecution execute(final Step step) throws Exception {
+        final JobExecution jobExecution = jobRepository.createJobExecution("group-packing-job", new JobParameters());
+        final StepExecution stepExecution = jobExecution.createStepExecution(step.getName());
+        jobRepository.add(stepExecution);
+        step.execute(stepExecution);
+        return stepExecution;
+    }
+
+}
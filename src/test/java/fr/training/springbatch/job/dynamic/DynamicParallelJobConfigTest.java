@@ -2,7 +2,12 @@ package fr.training.springbatch.job.dynamic;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
@@ -37,4 +42,25 @@ class DynamicParallelJobConfigTest {
         assertThat(jobExec.getStatus()).isEqualTo(BatchStatus.COMPLETED);
     }
 
+    @Test
+    void launch_DynamicJob_with_duplicate_file_names_should_fail(@TempDir final Path inputDir) throws Exception {
+        // Given : the same file name in two directories
+        copyCustomers(inputDir.resolve("a"));
+        copyCustomers(inputDir.resolve("b"));
+        final JobParameters jobParameters = new JobParametersBuilder(testUtils.getUniqueJobParameters())
+                .addString("input-path", inputDir.toUri() + "*/customer.csv") //
+                .addString("output-path", "target/output/files/") //
+                .toJobParameters();
+        // When
+        final JobExecution jobExec = testUtils.launchJob(jobParameters);
+        // Then
+        assertThat(jobExec.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(jobExec.getAllFailureExceptions()).isNotEmpty();
+    }
+
+    private static void copyCustomers(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.copy(Path.of("src/main/resources/csv/customer.csv"), directory.resolve("customer.csv"));
+    }
+
 }
@@ -2,6 +2,8 @@ package fr.training.springbatch.job.partition.file;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.File;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
@@ -35,6 +37,7 @@ class FilePartitionJobTest {
         final JobExecution jobExec = testUtils.launchJob(jobParameters);
         // Then
         assertThat(jobExec.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(new File("target/output/files/merged.csv")).exists();
     }
 
 }
@@ -0,0 +1,129 @@
+package fr.training.springbatch.job.partition.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class HistogramColumnRangePartitionerTest {
+
+    private static final int GRID_SIZE = 4;
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private int rowCount;
+
+    @BeforeEach
+    void createTables() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        jdbcTemplate.execute("CREATE TABLE skewed (id BIGINT NOT NULL PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE composite (region INT NOT NULL, id BIGINT NOT NULL, PRIMARY KEY (region, id))");
+
+        // skewed and gapped keys : a dense run, a few sparse keys, then keys above the int range
+        final List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 900; id++) {
+            ids.add(id);
+        }
+        for (long id = 10_000; id < 1_000_000; id += 10_000) {
+            ids.add(id);
+        }
+        for (long id = 0; id < 201; id++) {
+            ids.add(5_000_000_000L + id * 1_000);
+        }
+        rowCount = ids.size();
+        jdbcTemplate.batchUpdate("INSERT INTO skewed (id) VALUES (?)", ids, 100, (ps, id) -> ps.setLong(1, id));
+
+        // most rows in the first region, a small region, and a region with large ids
+        final List<long[]> keys = new ArrayList<>();
+        for (long id = 1; id <= 900; id++) {
+            keys.add(new long[] { 1, id });
+        }
+        for (long id = 1; id <= 10; id++) {
+            keys.add(new long[] { 2, id * 1_000 });
+        }
+        for (long id = 0; id < 290; id++) {
+            keys.add(new long[] { 3, 5_000_000_000L + id });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO composite (region, id) VALUES (?, ?)", keys, 100, (ps, key) -> {
+            ps.setInt(1, (int) key[0]);
+            ps.setLong(2, key[1]);
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        database.shutdown();
+    }
+
+    @Test
+    void partition_should_split_a_skewed_column_in_equal_row_counts() {
+        // Given
+        final HistogramColumnRangePartitioner partitioner = partitioner("skewed", "id");
+
+        // When
+        final Map<String, ExecutionContext> partitions = partitioner.partition(GRID_SIZE);
+
+        // Then
+        assertThat(partitions).hasSize(GRID_SIZE);
+        final List<Long> read = new ArrayList<>();
+        long total = 0;
+        for (final ExecutionContext partition : partitions.values()) {
+            final List<Long> ids = namedParameterJdbcTemplate.queryForList("SELECT id FROM skewed WHERE " + partitioner.rangeCondition(partition),
+                    partitioner.rangeParameters(partition), Long.class);
+            assertThat(ids).hasSize(rowCount / GRID_SIZE);
+            read.addAll(ids);
+            // same range with the inclusive min and max values
+            total += jdbcTemplate.queryForObject("SELECT COUNT(*) FROM skewed WHERE id BETWEEN ? AND ?", Long.class, partition.getLong("minValue"),
+                    partition.getLong("maxValue"));
+        }
+        assertThat(read).hasSize(rowCount).doesNotHaveDuplicates();
+        assertThat(total).isEqualTo(rowCount);
+        assertThat(partitions.values()).extracting(partition -> partition.getLong("maxValue")).contains(5_000_200_000L);
+    }
+
+    @Test
+    void partition_should_split_a_composite_key_in_equal_row_counts() {
+        // Given
+        final HistogramColumnRangePartitioner partitioner = partitioner("composite", "region", "id");
+
+        // When
+        final Map<String, ExecutionContext> partitions = partitioner.partition(GRID_SIZE);
+
+        // Then
+        assertThat(partitions).hasSize(GRID_SIZE);
+        final List<String> read = new ArrayList<>();
+        for (final ExecutionContext partition : partitions.values()) {
+            final List<String> keys = namedParameterJdbcTemplate.query("SELECT region, id FROM composite WHERE " + partitioner.rangeCondition(partition),
+                    partitioner.rangeParameters(partition), (rs, rowNum) -> rs.getInt(1) + ":" + rs.getLong(2));
+            assertThat(keys).hasSize(1200 / GRID_SIZE);
+            read.addAll(keys);
+        }
+        assertThat(read).hasSize(1200).doesNotHaveDuplicates();
+    }
+
+    private HistogramColumnRangePartitioner partitioner(final String table, final String... columns) {
+        final HistogramColumnRangePartitioner partitioner = new HistogramColumnRangePartitioner();
+        partitioner.setDataSource(database);
+        partitioner.setTable(table);
+        partitioner.setColumns(columns);
+        return partitioner;
+    }
+
+}
@@ -0,0 +1,59 @@
+package fr.training.springbatch.job.partition.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import fr.training.springbatch.job.BatchTestConfiguration;
+
+@ActiveProfiles("test")
+@SpringBatchTest
+@SpringBootTest(classes = { BatchTestConfiguration.class, JDBCPartitionJobConfig.class }, properties = { "spring.batch.job.enabled=false",
+        "spring.batch.job.names=partition-job", "application.partition.remote=true", "application.partition.poll-interval=100",
+        // embedded JMS broker between the manager and the workers
+        "spring.artemis.mode=embedded", "spring.artemis.embedded.enabled=true", "spring.artemis.embedded.queues=partition-requests" })
+class JDBCRemotePartitionJobTest {
+
+    @Autowired
+    private JobLauncherTestUtils testUtils;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Test
+    void launch_PartitionJob_remote_should_aggregate_the_partitions() throws Exception {
+        // Given
+        final JobParameters jobParameters = new JobParametersBuilder(testUtils.getUniqueJobParameters()).toJobParameters();
+        final Long customerCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer", Long.class);
+        // When
+        final JobExecution jobExec = testUtils.launchJob(jobParameters);
+        // Then
+        assertThat(jobExec.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        final StepExecution masterStepExecution = jobExec.getStepExecutions().stream() //
+                .filter(stepExecution -> "master-step".equals(stepExecution.getStepName())) //
+                .findFirst().orElseThrow();
+        // partitions run by the workers, as stored in the job repository
+        assertThat(jobExplorer.getJobExecution(jobExec.getId()).getStepExecutions()).filteredOn(stepExecution -> stepExecution.getStepName().startsWith("slave-step"))
+                .hasSizeGreaterThan(1)
+                .allMatch(stepExecution -> stepExecution.getStatus() == BatchStatus.COMPLETED);
+        // counts of the partitions read by the manager from the job repository
+        assertThat(masterStepExecution.getReadCount()).isEqualTo(customerCount);
+        assertThat(masterStepExecution.getWriteCount()).isEqualTo(customerCount);
+    }
+
+}
@@ -0,0 +1,73 @@
+package fr.training.springbatch.job.staging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.jdbc.JdbcTestUtils;
+
+import fr.training.springbatch.job.BatchTestConfiguration;
+
+@ActiveProfiles("test")
+@SpringBatchTest
+@SpringBootTest(classes = { BatchTestConfiguration.class, StagingJobConfig.class }, properties = { "spring.batch.job.enabled=false",
+        "spring.batch.job.names=staging-job", "application.loading-step.claiming=true",
+        "application.staging-step.codec=record" })
+class ClaimingStagingJobTest {
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setDataSource(final DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void stagingjob_with_claiming_reader_should_proccess_all_batch_staging_table_records() throws Exception {
+        final int before = JdbcTestUtils.countRowsInTable(jdbcTemplate, "BATCH_STAGING");
+        final int transactionsBefore = JdbcTestUtils.countRowsInTable(jdbcTemplate, "TRANSACTION");
+
+        final JobParameters jobParameters = new JobParametersBuilder(jobLauncherTestUtils.getUniqueJobParameters())
+                .addString("input-file", "src/main/resources/csv/transaction.csv")
+                .toJobParameters();
+
+        final JobExecution execution = jobLauncherTestUtils.launchJob(jobParameters);
+
+        final int after = JdbcTestUtils.countRowsInTable(jdbcTemplate, "BATCH_STAGING");
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(execution.getStepExecutions().iterator().next().getReadCount()).isEqualTo(after - before);
+
+        // every staged record is loaded once and marked as processed
+        final long jobId = execution.getJobId();
+        final int staged = after - before;
+        assertThat(staged).isPositive();
+        assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "BATCH_STAGING", "JOB_ID=" + jobId)).isEqualTo(staged);
+        assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "BATCH_STAGING", "JOB_ID=" + jobId + " AND PROCESSED='Y'")).isEqualTo(staged);
+        assertThat(JdbcTestUtils.countRowsInTable(jdbcTemplate, "TRANSACTION") - transactionsBefore).isEqualTo(staged);
+        assertThat(writeCount(execution, "loading-step")).isEqualTo(staged);
+    }
+
+    private long writeCount(final JobExecution execution, final String stepName) {
+        final Optional<StepExecution> stepExecution = execution.getStepExecutions().stream().filter(e -> stepName.equals(e.getStepName())).findFirst();
+        assertThat(stepExecution).isPresent();
+        return stepExecution.get().getWriteCount();
+    }
+
+}
\ No newline at end of file
@@ -2,6 +2,8 @@ package fr.training.springbatch.job.staging;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Optional;
+
 import javax.sql.DataSource;
 
 import org.junit.jupiter.api.Test;
@@ -9,6 +11,7 @@ import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.test.JobLauncherTestUtils;
 import org.springframework.batch.test.context.SpringBatchTest;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,6 +41,7 @@ class StagingJobTest {
     @Test
     void stagingjob_should_proccess_all_batch_staging_table_records() throws Exception {
         final int before = JdbcTestUtils.countRowsInTable(jdbcTemplate, "BATCH_STAGING");
+        final int transactionsBefore = JdbcTestUtils.countRowsInTable(jdbcTemplate, "TRANSACTION");
 
         final JobParameters jobParameters = new JobParametersBuilder(jobLauncherTestUtils.getUniqueJobParameters())
                 .addString("input-file", "src/main/resources/csv/transaction.csv")
@@ -48,6 +52,21 @@ class StagingJobTest {
         final int after = JdbcTestUtils.countRowsInTable(jdbcTemplate, "BATCH_STAGING");
         assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
         assertThat(execution.getStepExecutions().iterator().next().getReadCount()).isEqualTo(after - before);
+
+        // every staged record is loaded once and marked as processed
+        final long jobId = execution.getJobId();
+        final int staged = after - before;
+        assertThat(staged).isPositive();
+        assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "BATCH_STAGING", "JOB_ID=" + jobId)).isEqualTo(staged);
+        assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "BATCH_STAGING", "JOB_ID=" + jobId + " AND PROCESSED='Y'")).isEqualTo(staged);
+        assertThat(JdbcTestUtils.countRowsInTable(jdbcTemplate, "TRANSACTION") - transactionsBefore).isEqualTo(staged);
+        assertThat(writeCount(execution, "loading-step")).isEqualTo(staged);
+    }
+
+    private long writeCount(final JobExecution execution, final String stepName) {
+        final Optional<StepExecution> stepExecution = execution.getStepExecutions().stream().filter(e -> stepName.equals(e.getStepName())).findFirst();
+        assertThat(stepExecution).isPresent();
+        return stepExecution.get().getWriteCount();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package fr.training.springbatch.job.synchro;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import fr.training.springbatch.job.BatchTestConfiguration;
+
+@ActiveProfiles("test")
+@SpringBatchTest
+@SpringBootTest(classes = { BatchTestConfiguration.class, PartitionedFile2FileSynchroJobConfig.class }, properties = { "spring.batch.job.enabled=false",
+        "spring.batch.job.names=partitionedfile2filesynchro-job", "application.partitionedfile2filesynchro-step.grid-size=12" })
+class PartitionedFile2FileSynchroJobTest {
+
+    private static final String OUTPUT_PATH = "target/output/partitionedsynchro/";
+
+    private static final String CUSTOMER_FILE = "src/main/resources/csv/customer.csv";
+
+    private static final String TRANSACTION_FILE = "src/main/resources/csv/transaction.csv";
+
+    private static final String EXPECTED_FILE = "src/test/resources/datas/csv/customer-expected.csv";
+
+    private static final Pattern PARTITION_FILE = Pattern.compile("file2filesynchro-partition-step-partition(\\d+)\\.csv");
+
+    @Autowired
+    private JobLauncherTestUtils testUtils;
+
+    @Test
+    void partitioned_synchro_should_produce_same_records_as_single_threaded_synchro() throws Exception {
+        // Given : more than 10 partitions, partition10 is after partition9
+        Files.createDirectories(Paths.get(OUTPUT_PATH));
+        try (Stream<Path> files = Files.list(Paths.get(OUTPUT_PATH))) {
+            for (final Path file : files.filter(path -> PARTITION_FILE.matcher(path.getFileName().toString()).matches()).toList()) {
+                Files.delete(file); // of a previous run with another grid size
+            }
+        }
+        final JobParameters jobParameters = new JobParametersBuilder(testUtils.getUniqueJobParameters()) //
+                .addString("customer-file", CUSTOMER_FILE) //
+                .addString("transaction-file", TRANSACTION_FILE) //
+                .addString("output-path", OUTPUT_PATH) //
+                .toJobParameters();
+        // When
+        final JobExecution jobExecution = testUtils.launchJob(jobParameters);
+
+        // Then
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(jobExecution.getStepExecutions()).hasSizeGreaterThan(2); // the manager step & its partitions
+
+        assertThat(concatenatePartitionFiles()).isEqualTo(Files.readAllLines(Paths.get(EXPECTED_FILE)));
+    }
+
+    private static List<String> concatenatePartitionFiles() throws IOException {
+        final List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(Paths.get(OUTPUT_PATH))) {
+            for (final Path file : files.filter(path -> PARTITION_FILE.matcher(path.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingInt(PartitionedFile2FileSynchroJobTest::partitionNumber)).toList()) {
+                lines.addAll(Files.readAllLines(file));
+            }
+        }
+        return lines;
+    }
+
+    private static int partitionNumber(final Path file) {
+        final Matcher matcher = PARTITION_FILE.matcher(file.getFileName().toString());
+        matcher.matches();
+        return Integer.parseInt(matcher.group(1));
+    }
+
+}
@@ -0,0 +1,36 @@
+package fr.training.springbatch.job.synchro.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import fr.training.springbatch.app.dto.Transaction;
+import fr.training.springbatch.app.dto.TransactionSum;
+
+class TransactionAccumulatorTest {
+
+    private final List<Transaction> transactions = IntStream.rangeClosed(1, 1000)
+            .mapToObj(i -> new Transaction(7L, String.valueOf(i), LocalDate.of(2023, 1, 1), 0.1))
+            .toList();
+
+    @Test
+    void summing_should_fold_the_transactions_of_a_customer() {
+        final TransactionSum sum = transactions.stream().collect(TransactionAccumulator.summing());
+
+        assertThat(sum.customerNumber()).isEqualTo(7L);
+        assertThat(sum.balance()).isEqualTo(100.0);
+    }
+
+    @Test
+    void summing_should_combine_partial_sums_of_a_parallel_stream() {
+        final TransactionSum sum = transactions.parallelStream().collect(TransactionAccumulator.summing());
+
+        assertThat(sum.customerNumber()).isEqualTo(7L);
+        assertThat(sum.balance()).isEqualTo(100.0);
+    }
+
+}
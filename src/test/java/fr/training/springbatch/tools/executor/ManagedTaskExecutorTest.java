@@ -0,0 +1,197 @@
+package fr.training.springbatch.tools.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import fr.training.springbatch.tools.executor.ManagedTaskExecutor.Mode;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ManagedTaskExecutorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ManagedTaskExecutor executor;
+
+    @AfterEach
+    void destroy() throws Exception {
+        release.countDown();
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void execute_should_run_the_task_in_the_caller_thread_when_the_queue_is_full() throws Exception {
+        // Given : the single thread is busy and the single queue slot is taken
+        executor = executor(Mode.PLATFORM, 1, 1);
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+        await(() -> executor.getActiveCount() == 1 && executor.getQueueSize() == 1);
+
+        // When
+        final AtomicReference<Thread> runner = new AtomicReference<>();
+        executor.execute(() -> runner.set(Thread.currentThread()));
+
+        // Then
+        assertThat(runner.get()).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void virtual_mode_should_run_at_most_pool_size_tasks_at_the_same_time() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+
+        // Given
+        executor = executor(Mode.VIRTUAL, 2, Integer.MAX_VALUE);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(10);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        // Then
+        assertThat(executor.getMode()).isEqualTo(Mode.VIRTUAL);
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isEqualTo(2);
+    }
+
+    @Test
+    void virtual_mode_should_start_the_waiting_tasks_in_submission_order() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+
+        // Given : the single running slot is taken
+        executor = executor(Mode.VIRTUAL, 1, Integer.MAX_VALUE);
+        executor.execute(this::awaitRelease);
+        final List<Integer> started = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            final int rank = i;
+            executor.execute(() -> {
+                started.add(rank);
+                done.countDown();
+            });
+        }
+
+        // When
+        release.countDown();
+
+        // Then
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(started).isSorted().hasSize(50);
+    }
+
+    @Test
+    void virtual_mode_should_fall_back_to_platform_threads_before_java_21() throws Exception {
+        assumeTrue(Runtime.version().feature() < 21, "virtual threads are available");
+
+        // When
+        executor = executor(Mode.VIRTUAL, 2, Integer.MAX_VALUE);
+
+        // Then
+        assertThat(executor.getMode()).isEqualTo(Mode.PLATFORM);
+        final CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown);
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void meters_should_publish_the_executor_counts() throws Exception {
+        // Given
+        executor = executor(Mode.PLATFORM, 1, 10);
+
+        // When
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+        await(() -> executor.getActiveCount() == 1);
+
+        // Then
+        assertThat(gauge("batch.executor.active")).isEqualTo(1.0);
+        assertThat(gauge("batch.executor.queued")).isEqualTo(1.0);
+        assertThat(gauge("batch.executor.pool.size")).isEqualTo(1.0);
+
+        release.countDown();
+        await(() -> meterRegistry.get("batch.executor.completed").functionCounter().count() == 2.0);
+        assertThat(gauge("batch.executor.active")).isZero();
+        assertThat(gauge("batch.executor.queued")).isZero();
+    }
+
+    @Test
+    void meters_should_be_replaced_by_a_new_executor_and_removed_on_destroy() throws Exception {
+        // Given : an executor of a previous application context
+        final ManagedTaskExecutor previous = executor(Mode.PLATFORM, 1, 10);
+
+        // When
+        executor = executor(Mode.PLATFORM, 3, 10);
+        previous.destroy();
+
+        // Then : the meters read the current executor
+        assertThat(gauge("batch.executor.pool.size")).isEqualTo(3.0);
+
+        executor.destroy();
+        executor = null;
+        assertThat(meterRegistry.find("batch.executor.pool.size").gauge()).isNull();
+        assertThat(meterRegistry.find("batch.executor.completed").functionCounter()).isNull();
+    }
+
+    private ManagedTaskExecutor executor(final Mode mode, final int poolSize, final int queueCapacity) throws Exception {
+        final ManagedTaskExecutor taskExecutor = new ManagedTaskExecutor();
+        taskExecutor.setMode(mode);
+        taskExecutor.setPoolSize(poolSize);
+        taskExecutor.setQueueCapacity(queueCapacity);
+        taskExecutor.setMeterRegistry(meterRegistry);
+        taskExecutor.afterPropertiesSet();
+        return taskExecutor;
+    }
+
+    private double gauge(final String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+}
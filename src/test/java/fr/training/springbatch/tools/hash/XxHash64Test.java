@@ -0,0 +1,33 @@
+package fr.training.springbatch.tools.hash;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class XxHash64Test {
+
+    @Test
+    void hash_should_match_the_reference_vectors() {
+        assertThat(XxHash64.hash("")).isEqualTo(0xEF46DB3751D8E999L);
+        assertThat(XxHash64.hash("a")).isEqualTo(0xD24EC4F1A98C6E5BL);
+        assertThat(XxHash64.hash("abc")).isEqualTo(0x44BC2CF5AD770999L);
+        // more than 32 bytes : stripes path
+        assertThat(XxHash64.hash("Nobody inspects the spammish repetition")).isEqualTo(0xFBCEA83C8A378BF1L);
+    }
+
+    @Test
+    void hash_of_a_slice_should_be_the_hash_of_the_sliced_bytes() {
+        final byte[] data = "--abc--".getBytes();
+
+        assertThat(XxHash64.hash(data, 2, 3, 0L)).isEqualTo(XxHash64.hash("abc"));
+    }
+
+    @Test
+    void hashFields_should_distinguish_field_boundaries_and_nulls() {
+        assertThat(XxHash64.hashFields("Mangos")).isEqualTo(XxHash64.hashFields("Mangos"));
+        assertThat(XxHash64.hashFields("Mangos")).isNotEqualTo(XxHash64.hashFields("Mango"));
+        assertThat(XxHash64.hashFields("ab", "c")).isNotEqualTo(XxHash64.hashFields("a", "bc"));
+        assertThat(XxHash64.hashFields((Object) null)).isNotEqualTo(XxHash64.hashFields(""));
+    }
+
+}
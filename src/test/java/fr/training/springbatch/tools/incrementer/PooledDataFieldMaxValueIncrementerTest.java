@@ -0,0 +1,56 @@
+package fr.training.springbatch.tools.incrementer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class PooledDataFieldMaxValueIncrementerTest {
+
+    private EmbeddedDatabase database;
+
+    @BeforeEach
+    void createSequence() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2).build();
+        new JdbcTemplate(database).execute("CREATE SEQUENCE test_seq INCREMENT BY 10");
+    }
+
+    @AfterEach
+    void shutdown() {
+        database.shutdown();
+    }
+
+    @Test
+    void forSequence_should_reserve_blocks_of_the_sequence_increment() throws Exception {
+        // Given : two incrementers of the same sequence, like two JVMs
+        final PooledDataFieldMaxValueIncrementer first = PooledDataFieldMaxValueIncrementer.forSequence(database, "test_seq");
+        final PooledDataFieldMaxValueIncrementer second = PooledDataFieldMaxValueIncrementer.forSequence(database, "test_seq");
+
+        // When
+        final List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 35; i++) {
+            values.add(first.nextLongValue());
+            values.add(second.nextLongValue());
+        }
+
+        // Then : unique values, 4 blocks of 10 values for each incrementer
+        assertThat(values).doesNotHaveDuplicates();
+        assertThat(values).filteredOn(value -> value < 81).hasSize(70);
+    }
+
+    @Test
+    void forSequence_should_fail_for_an_unknown_sequence() {
+        assertThatThrownBy(() -> PooledDataFieldMaxValueIncrementer.forSequence(database, "unknown_seq")).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unknown_seq");
+    }
+
+}
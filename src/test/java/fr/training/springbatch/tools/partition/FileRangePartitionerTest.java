@@ -0,0 +1,93 @@
+package fr.training.springbatch.tools.partition;
+
+import static fr.training.springbatch.tools.partition.FileRangePartitioner.END_OFFSET;
+import static fr.training.springbatch.tools.partition.FileRangePartitioner.FILE_NAME;
+import static fr.training.springbatch.tools.partition.FileRangePartitioner.RANGE_INDEX;
+import static fr.training.springbatch.tools.partition.FileRangePartitioner.START_OFFSET;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+class FileRangePartitionerTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void partition_should_split_a_file_on_line_boundaries() throws Exception {
+        // Given
+        final Path file = write("customer.csv", "number;name", "1;aaaaaaaa", "2;b", "3;cccccccccccc", "4;d", "5;eeee", "6;f", "7;gggggggggg", "8;h");
+
+        final FileRangePartitioner partitioner = new FileRangePartitioner();
+        partitioner.setResource(new FileSystemResource(file));
+        partitioner.setLinesToSkip(1);
+        partitioner.afterPropertiesSet();
+
+        // When
+        final Map<String, ExecutionContext> partitions = partitioner.partition(3);
+
+        // Then
+        assertThat(partitions).hasSize(3);
+        final List<String> allLines = new ArrayList<>();
+        long previousEnd = 0;
+        int rangeIndex = 0;
+        for (final ExecutionContext context : partitions.values()) {
+            assertThat(context.getString(FILE_NAME)).endsWith("customer.csv");
+            assertThat(context.getInt(RANGE_INDEX)).isEqualTo(rangeIndex++);
+            assertThat(context.getLong(START_OFFSET)).isEqualTo(previousEnd);
+            previousEnd = context.getLong(END_OFFSET);
+            final List<String> lines = lines(file, context.getLong(START_OFFSET), previousEnd);
+            assertThat(lines).isNotEmpty();
+            allLines.addAll(lines);
+        }
+        assertThat(previousEnd).isEqualTo(Files.size(file));
+        // no line is lost, split or read twice
+        assertThat(allLines).containsExactlyElementsOf(Files.readAllLines(file));
+        assertThat(lines(file, 0, partitions.get("partition0").getLong(END_OFFSET))).startsWith("number;name", "1;aaaaaaaa");
+    }
+
+    @Test
+    void partition_should_share_the_grid_between_files_by_size() throws Exception {
+        // Given
+        final Path big = write("big.csv", "1;a", "2;b", "3;c", "4;d", "5;e", "6;f", "7;g", "8;h", "9;i");
+        final Path small = write("small.csv", "1;a");
+
+        final FileRangePartitioner partitioner = new FileRangePartitioner();
+        partitioner.setResources(new Resource[] { new FileSystemResource(big), new FileSystemResource(small) });
+        partitioner.afterPropertiesSet();
+
+        // When
+        final Map<String, ExecutionContext> partitions = partitioner.partition(5);
+
+        // Then
+        assertThat(partitions).hasSize(5);
+        final ExecutionContext last = partitions.get("partition4");
+        assertThat(last.getString(FILE_NAME)).endsWith("small.csv");
+        assertThat(last.getLong(START_OFFSET)).isZero();
+        assertThat(last.getLong(END_OFFSET)).isEqualTo(Files.size(small));
+        // a file read by a single partition keeps its own output name
+        assertThat(last.containsKey(RANGE_INDEX)).isFalse();
+    }
+
+    private Path write(final String name, final String... lines) throws IOException {
+        return Files.writeString(tempDir.resolve(name), String.join("\n", lines) + "\n");
+    }
+
+    private static List<String> lines(final Path file, final long start, final long end) throws IOException {
+        final String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).substring((int) start, (int) end);
+        return content.isEmpty() ? List.of() : List.of(content.split("\n"));
+    }
+
+}
@@ -0,0 +1,92 @@
+package fr.training.springbatch.tools.partition;
+
+import static fr.training.springbatch.tools.partition.KeyAlignedFilePartitioner.MASTER_END_OFFSET;
+import static fr.training.springbatch.tools.partition.KeyAlignedFilePartitioner.MASTER_START_OFFSET;
+import static fr.training.springbatch.tools.partition.KeyAlignedFilePartitioner.SLAVE_END_OFFSET;
+import static fr.training.springbatch.tools.partition.KeyAlignedFilePartitioner.SLAVE_START_OFFSET;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+class KeyAlignedFilePartitionerTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void partition_should_split_both_files_on_the_same_keys() throws Exception {
+        // Given
+        final Path master = write("master.csv", "key;label", "1;a", "2;b", "3;c", "4;d", "5;e", "6;f", "7;g", "8;h");
+        final Path slave = write("slave.csv", "key;amount", "0;x", "2;10", "2;20", "3;30", "5;50", "5;51", "5;52", "8;80", "9;90");
+
+        final KeyAlignedFilePartitioner<Long> partitioner = new KeyAlignedFilePartitioner<>();
+        partitioner.setMasterResource(new FileSystemResource(master));
+        partitioner.setMasterKeyExtractor(KeyAlignedFilePartitionerTest::keyOf);
+        partitioner.setMasterLinesToSkip(1);
+        partitioner.setSlaveResource(new FileSystemResource(slave));
+        partitioner.setSlaveKeyExtractor(KeyAlignedFilePartitionerTest::keyOf);
+        partitioner.setSlaveLinesToSkip(1);
+        partitioner.afterPropertiesSet();
+
+        // When
+        final Map<String, ExecutionContext> partitions = partitioner.partition(3);
+
+        // Then
+        assertThat(partitions).hasSize(3);
+        final List<List<String>> masterLines = new ArrayList<>();
+        final List<List<String>> slaveLines = new ArrayList<>();
+        for (final ExecutionContext context : partitions.values()) {
+            masterLines.add(lines(master, context.getLong(MASTER_START_OFFSET), context.getLong(MASTER_END_OFFSET)));
+            slaveLines.add(lines(slave, context.getLong(SLAVE_START_OFFSET), context.getLong(SLAVE_END_OFFSET)));
+        }
+        // every range holds the slave lines of its own master keys
+        assertThat(masterLines).containsExactly(List.of("key;label", "1;a", "2;b", "3;c"), List.of("4;d", "5;e", "6;f"), List.of("7;g", "8;h"));
+        assertThat(slaveLines).containsExactly(List.of("key;amount", "0;x", "2;10", "2;20", "3;30"), List.of("5;50", "5;51", "5;52"), List.of("8;80", "9;90"));
+    }
+
+    @Test
+    void partition_should_not_split_a_single_key() throws Exception {
+        // Given
+        final Path master = write("master.csv", "1;a", "1;b", "1;c", "1;d");
+        final Path slave = write("slave.csv", "1;x");
+
+        final KeyAlignedFilePartitioner<Long> partitioner = new KeyAlignedFilePartitioner<>();
+        partitioner.setMasterResource(new FileSystemResource(master));
+        partitioner.setMasterKeyExtractor(KeyAlignedFilePartitionerTest::keyOf);
+        partitioner.setSlaveResource(new FileSystemResource(slave));
+        partitioner.setSlaveKeyExtractor(KeyAlignedFilePartitionerTest::keyOf);
+        partitioner.afterPropertiesSet();
+
+        // When
+        final Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        // Then
+        assertThat(partitions).hasSize(1);
+        assertThat(partitions.get("partition0").getLong(MASTER_END_OFFSET)).isEqualTo(Files.size(master));
+    }
+
+    private Path write(final String name, final String... lines) throws IOException {
+        return Files.writeString(tempDir.resolve(name), String.join("\n", lines) + "\n");
+    }
+
+    private static List<String> lines(final Path file, final long start, final long end) throws IOException {
+        final String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).substring((int) start, (int) end);
+        return content.isEmpty() ? List.of() : List.of(content.split("\n"));
+    }
+
+    private static Long keyOf(final String line) {
+        return Long.valueOf(line.substring(0, line.indexOf(';')));
+    }
+
+}
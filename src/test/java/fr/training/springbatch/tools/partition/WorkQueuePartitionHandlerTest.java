@@ -0,0 +1,108 @@
+package fr.training.springbatch.tools.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.SimplePartitioner;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+
+class WorkQueuePartitionHandlerTest {
+
+    private static final String WORKER_STEP = "worker-step";
+
+    private static final String FAILING_PARTITION = WORKER_STEP + ":partition3";
+
+    private EmbeddedDatabase database;
+
+    private JdbcTransactionManager transactionManager;
+
+    private JobRepository jobRepository;
+
+    @BeforeEach
+    void createJobRepository() throws Exception {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        transactionManager = new JdbcTransactionManager(database);
+        final JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(database);
+        factory.setTransactionManager(transactionManager);
+        factory.afterPropertiesSet();
+        jobRepository = factory.getObject();
+    }
+
+    @AfterEach
+    void shutdown() {
+        database.shutdown();
+    }
+
+    @Test
+    void handle_should_run_the_other_partitions_when_a_partition_fails() throws Exception {
+        // Given : 2 workers, 5 partitions by worker, the fourth partition fails
+        final Map<String, String> workerThreads = new ConcurrentHashMap<>();
+        final WorkQueuePartitionHandler partitionHandler = new WorkQueuePartitionHandler();
+        partitionHandler.setStep(workerStep(workerThreads));
+        partitionHandler.setThreadCount(2);
+        partitionHandler.setPartitionsPerThread(5);
+        partitionHandler.afterPropertiesSet();
+
+        final Step managerStep = new StepBuilder("manager-step", jobRepository) //
+                .partitioner(WORKER_STEP, new SimplePartitioner()) //
+                .partitionHandler(partitionHandler) //
+                .build();
+
+        // When
+        final JobExecution jobExecution = jobRepository.createJobExecution("partition-job", new JobParameters());
+        final StepExecution managerStepExecution = jobExecution.createStepExecution(managerStep.getName());
+        jobRepository.add(managerStepExecution);
+        managerStep.execute(managerStepExecution);
+
+        // Then : every partition ran once, on one of the 2 workers
+        final List<StepExecution> partitions = jobExecution.getStepExecutions().stream().filter(e -> e.getStepName().startsWith(WORKER_STEP)).toList();
+        assertThat(partitions).hasSize(10);
+        assertThat(workerThreads).hasSize(10);
+        assertThat(Set.copyOf(workerThreads.values())).hasSizeBetween(1, 2);
+
+        // only the failing partition is FAILED, and it fails the manager step
+        assertThat(partitions).filteredOn(e -> e.getStepName().equals(FAILING_PARTITION)).extracting(StepExecution::getStatus)
+                .containsExactly(BatchStatus.FAILED);
+        assertThat(partitions).filteredOn(e -> !e.getStepName().equals(FAILING_PARTITION)).extracting(StepExecution::getStatus)
+                .containsOnly(BatchStatus.COMPLETED);
+        assertThat(managerStepExecution.getStatus()).isEqualTo(BatchStatus.FAILED);
+    }
+
+    private Step workerStep(final Map<String, String> workerThreads) {
+        return new StepBuilder(WORKER_STEP, jobRepository) //
+                .tasklet((contribution, chunkContext) -> {
+                    final String partition = chunkContext.getStepContext().getStepName();
+                    workerThreads.put(partition, Thread.currentThread().getName());
+                    Thread.sleep(10); // leaves the time for the other worker to start
+                    if (FAILING_PARTITION.equals(partition)) {
+                        throw new IllegalStateException("Partition failure");
+                    }
+                    return RepeatStatus.FINISHED;
+                }, transactionManager) //
+                .build();
+    }
+
+}
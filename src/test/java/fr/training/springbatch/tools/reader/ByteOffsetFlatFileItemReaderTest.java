@@ -0,0 +1,131 @@
+package fr.training.springbatch.tools.reader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+class ByteOffsetFlatFileItemReaderTest {
+
+    private static final String HEADER = "header";
+
+    private static final int LINE_COUNT = 50;
+
+    @TempDir
+    private Path tempDir;
+
+    private Path file;
+
+    private final List<String> lines = IntStream.rangeClosed(1, LINE_COUNT).mapToObj(i -> "line-" + i + "-" + "x".repeat(i % 7)).toList();
+
+    @BeforeEach
+    void createFile() throws Exception {
+        file = tempDir.resolve("lines.csv");
+        final List<String> content = new ArrayList<>();
+        content.add(HEADER);
+        content.addAll(lines);
+        Files.write(file, content, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void open_should_seek_to_the_saved_byte_offset() throws Exception {
+        // Given : k lines read and committed
+        final int k = 17;
+        final ExecutionContext executionContext = new ExecutionContext();
+        final ByteOffsetFlatFileItemReader<String> reader = reader(0, Long.MAX_VALUE);
+        reader.open(executionContext);
+        for (int i = 0; i < k; i++) {
+            reader.read();
+        }
+        reader.update(executionContext);
+        reader.close();
+        final long offset = executionContext.getLong("lines.byte.offset");
+        assertThat(offset).isEqualTo(Files.size(file) - String.join("\n", lines.subList(k, LINE_COUNT)).length() - 1);
+
+        // the lines already read are blanked (no more line feeds) : re-reading them instead of seeking would lose lines
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+            final byte[] blank = new byte[(int) offset - 1];
+            Arrays.fill(blank, (byte) ' ');
+            randomAccessFile.write(blank);
+        }
+
+        // When
+        final List<String> items = readAll(reader(0, Long.MAX_VALUE), executionContext);
+
+        // Then : continues at line k+1
+        assertThat(items).containsExactlyElementsOf(lines.subList(k, LINE_COUNT));
+    }
+
+    @Test
+    void ranges_cutting_through_lines_should_read_each_line_once() throws Exception {
+        final long size = Files.size(file);
+        for (long cut = 1; cut < size; cut++) {
+            // When
+            final List<String> items = readAll(reader(0, cut), new ExecutionContext());
+            items.addAll(readAll(reader(cut, size), new ExecutionContext()));
+
+            // Then : a line belongs to the range where it starts
+            assertThat(items).as("ranges cut at %d", cut).containsExactlyElementsOf(lines);
+        }
+    }
+
+    @Test
+    void range_should_read_the_lines_starting_in_the_range() throws Exception {
+        // Given : a range starting in the middle of the line of index 3 and ending in the middle of the line of index 5 (from 0)
+        final long line3 = offsetOf(3);
+        final long line5 = offsetOf(5);
+
+        // When
+        final List<String> items = readAll(reader(line3 + 2, line5 + 2), new ExecutionContext());
+
+        // Then : the line cut at the start belongs to the previous range, the line cut at the end to this one
+        assertThat(items).containsExactly(lines.get(4), lines.get(5));
+    }
+
+    /**
+     * @return the offset of the line of the given index (0 for the first line after the header).
+     */
+    private long offsetOf(final int index) {
+        long offset = HEADER.length() + 1;
+        for (int i = 0; i < index; i++) {
+            offset += lines.get(i).length() + 1;
+        }
+        return offset;
+    }
+
+    private ByteOffsetFlatFileItemReader<String> reader(final long startOffset, final long endOffset) throws Exception {
+        final ByteOffsetFlatFileItemReader<String> reader = new ByteOffsetFlatFileItemReader<>();
+        reader.setName("lines");
+        reader.setResource(new FileSystemResource(file));
+        reader.setLineMapper((line, lineNumber) -> line);
+        reader.setLinesToSkip(1);
+        reader.setStartOffset(startOffset);
+        reader.setEndOffset(endOffset);
+        reader.afterPropertiesSet();
+        return reader;
+    }
+
+    private static List<String> readAll(final ByteOffsetFlatFileItemReader<String> reader, final ExecutionContext executionContext) throws Exception {
+        reader.open(executionContext);
+        final List<String> items = new ArrayList<>();
+        String item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        reader.close();
+        return items;
+    }
+
+}
@@ -0,0 +1,158 @@
+package fr.training.springbatch.tools.staging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import fr.training.springbatch.job.BatchTestConfiguration;
+
+/**
+ * The claims are committed in their own transactions : the test data must be committed too.
+ */
+@ContextConfiguration(classes = { BatchTestConfiguration.class })
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClaimingStagingItemReaderTest {
+
+    private static final long JOB_ID = 4242L;
+
+    private static final long FIRST_ID = 1_000_000L;
+
+    private static final int RECORD_COUNT = 250;
+
+    private static final int CLAIM_SIZE = 20;
+
+    private final StagingItemCodec<String> codec = new SerializationStagingItemCodec<>();
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void stageRecords() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        deleteRecords();
+        LongStream.range(FIRST_ID, FIRST_ID + RECORD_COUNT)
+                .forEach(id -> jdbcTemplate.update("INSERT INTO BATCH_STAGING (ID, JOB_ID, VALUE_, PROCESSED) VALUES (?, ?, ?, ?)", id, JOB_ID,
+                        codec.encode("value-" + id), StagingItemWriter.NEW));
+    }
+
+    @AfterEach
+    void deleteRecords() {
+        jdbcTemplate.update("DELETE FROM BATCH_STAGING WHERE JOB_ID=?", JOB_ID);
+    }
+
+    @Test
+    void two_workers_should_drain_the_records_without_overlap() throws Exception {
+        // Given
+        final ClaimingStagingItemReader<String> workerA = reader("worker-a");
+        final ClaimingStagingItemReader<String> workerB = reader("worker-b");
+        final List<Long> readByA = new ArrayList<>();
+        final List<Long> readByB = new ArrayList<>();
+
+        // When : the workers read in turn
+        boolean drained = false;
+        while (!drained) {
+            final ProcessIndicatorItemWrapper<String> itemA = workerA.read();
+            final ProcessIndicatorItemWrapper<String> itemB = workerB.read();
+            add(readByA, itemA);
+            add(readByB, itemB);
+            drained = itemA == null && itemB == null;
+        }
+
+        // Then
+        assertThat(readByA).isNotEmpty().doesNotHaveDuplicates().doesNotContainAnyElementsOf(readByB);
+        assertThat(readByB).isNotEmpty().doesNotHaveDuplicates();
+        final List<Long> all = new ArrayList<>(readByA);
+        all.addAll(readByB);
+        assertThat(new HashSet<>(all)).hasSize(RECORD_COUNT).containsAll(LongStream.range(FIRST_ID, FIRST_ID + RECORD_COUNT).boxed().toList());
+    }
+
+    @Test
+    void expired_claim_should_be_taken_over_by_another_worker() throws Exception {
+        // Given : worker A claims a block and crashes
+        final ClaimingStagingItemReader<String> workerA = reader("worker-a");
+        final ProcessIndicatorItemWrapper<String> first = workerA.read();
+        assertThat(first.getItem()).isEqualTo("value-" + first.getId());
+        final ClaimingStagingItemReader<String> workerB = reader("worker-b");
+        assertThat(readAll(workerB)).hasSize(RECORD_COUNT - CLAIM_SIZE);
+
+        // When : its claim expires
+        jdbcTemplate.update("UPDATE BATCH_STAGING SET CLAIMED_UNTIL=? WHERE CLAIMED_BY=?", new Timestamp(System.currentTimeMillis() - 1000), "worker-a");
+        workerB.beforeStep(stepExecution());
+
+        // Then
+        assertThat(readAll(workerB)).hasSize(CLAIM_SIZE).contains(first.getId());
+    }
+
+    @Test
+    void afterStep_should_release_the_unprocessed_claims() throws Exception {
+        // Given : worker A claims a block and processes a single record
+        final ClaimingStagingItemReader<String> workerA = reader("worker-a");
+        final StepExecution stepExecution = stepExecution();
+        workerA.beforeStep(stepExecution);
+        final ProcessIndicatorItemWrapper<String> processed = workerA.read();
+        jdbcTemplate.update("UPDATE BATCH_STAGING SET PROCESSED=? WHERE ID=?", StagingItemWriter.DONE, processed.getId());
+
+        // When
+        workerA.afterStep(stepExecution);
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_STAGING WHERE CLAIMED_BY=? AND PROCESSED=?", Integer.class, "worker-a",
+                StagingItemWriter.NEW)).isZero();
+        assertThat(readAll(reader("worker-b"))).hasSize(RECORD_COUNT - 1).doesNotContain(processed.getId());
+    }
+
+    private ClaimingStagingItemReader<String> reader(final String workerId) throws Exception {
+        final ClaimingStagingItemReader<String> reader = new ClaimingStagingItemReader<>();
+        reader.setDataSource(dataSource);
+        reader.setCodec(codec);
+        reader.setWorkerId(workerId);
+        reader.setJobId(JOB_ID);
+        reader.setClaimSize(CLAIM_SIZE);
+        // optimistic claims (SKIP LOCKED is for PostgreSQL)
+        reader.setSkipLocked(false);
+        reader.afterPropertiesSet();
+        reader.beforeStep(stepExecution());
+        return reader;
+    }
+
+    private static StepExecution stepExecution() {
+        return MetaDataInstanceFactory.createStepExecution();
+    }
+
+    private static List<Long> readAll(final ClaimingStagingItemReader<String> reader) {
+        final List<Long> ids = new ArrayList<>();
+        ProcessIndicatorItemWrapper<String> item;
+        while ((item = reader.read()) != null) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    private static void add(final List<Long> ids, final ProcessIndicatorItemWrapper<String> item) {
+        if (item != null) {
+            ids.add(item.getId());
+        }
+    }
+
+}
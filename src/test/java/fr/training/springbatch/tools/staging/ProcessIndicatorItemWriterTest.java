@@ -0,0 +1,115 @@
+package fr.training.springbatch.tools.staging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import fr.training.springbatch.job.BatchTestConfiguration;
+
+/**
+ * Each write runs in its own transaction, like a chunk : the test data must be committed.
+ */
+@ContextConfiguration(classes = { BatchTestConfiguration.class })
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProcessIndicatorItemWriterTest {
+
+    private static final long JOB_ID = 4343L;
+
+    private static final long FIRST_ID = 2_000_000L;
+
+    private final StagingItemCodec<String> codec = new SerializationStagingItemCodec<>();
+
+    private final List<String> written = new ArrayList<>();
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ProcessIndicatorItemWriter<String> writer;
+
+    @BeforeEach
+    void setup() throws Exception {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        deleteRecords();
+        for (long id = FIRST_ID; id < FIRST_ID + 3; id++) {
+            jdbcTemplate.update("INSERT INTO BATCH_STAGING (ID, JOB_ID, VALUE_, PROCESSED) VALUES (?, ?, ?, ?)", id, JOB_ID, codec.encode("value-" + id),
+                    StagingItemWriter.NEW);
+        }
+        writer = new ProcessIndicatorItemWriter<>();
+        writer.setDataSource(dataSource);
+        writer.setDelegate(chunk -> written.addAll(chunk.getItems()));
+        writer.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void deleteRecords() {
+        jdbcTemplate.update("DELETE FROM BATCH_STAGING WHERE JOB_ID=?", JOB_ID);
+    }
+
+    @Test
+    void write_should_mark_the_chunk_records_processed_and_write_the_items() {
+        // When
+        transactionTemplate.executeWithoutResult(status -> write(FIRST_ID, FIRST_ID + 1, FIRST_ID + 2));
+
+        // Then
+        assertThat(countRecords(StagingItemWriter.DONE)).isEqualTo(3);
+        assertThat(written).containsExactly("value-" + FIRST_ID, "value-" + (FIRST_ID + 1), "value-" + (FIRST_ID + 2));
+    }
+
+    @Test
+    void write_should_fail_the_chunk_when_a_record_is_already_processed() {
+        // Given : a record processed by another worker
+        jdbcTemplate.update("UPDATE BATCH_STAGING SET PROCESSED=? WHERE ID=?", StagingItemWriter.DONE, FIRST_ID + 1);
+
+        // When
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> write(FIRST_ID, FIRST_ID + 1, FIRST_ID + 2)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        // Then : the chunk is rolled back, nothing else is marked nor written
+        assertThat(countRecords(StagingItemWriter.NEW)).isEqualTo(2);
+        assertThat(countRecords(StagingItemWriter.DONE)).isEqualTo(1);
+        assertThat(written).isEmpty();
+    }
+
+    private void write(final long... ids) {
+        final Chunk<ProcessIndicatorItemWrapper<String>> chunk = new Chunk<>();
+        for (final long id : ids) {
+            chunk.add(new ProcessIndicatorItemWrapper<>(id, "value-" + id));
+        }
+        try {
+            writer.write(chunk);
+        } catch (final RuntimeException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int countRecords(final String processed) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_STAGING WHERE JOB_ID=? AND PROCESSED=?", Integer.class, JOB_ID, processed);
+    }
+
+}
@@ -0,0 +1,95 @@
+package fr.training.springbatch.tools.staging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import fr.training.springbatch.app.dto.Transaction;
+
+class StagingItemCodecTest {
+
+    private static final Transaction TRANSACTION = new Transaction(123456L, "TX-000042", LocalDate.of(2023, 5, 17), 1234.56);
+
+    enum Kind {
+        DEBIT, CREDIT
+    }
+
+    record AllTypes(long count, int rank, double rate, boolean active, Long optional, String label, BigDecimal amount, LocalDate day,
+            LocalDateTime timestamp, Kind kind) {
+    }
+
+    record Unsupported(Object value) {
+    }
+
+    record Label(Long id, String text) {
+    }
+
+    @Test
+    void record_codec_should_decode_what_it_encodes() {
+        // Given
+        final StagingItemCodec<Transaction> codec = new RecordStagingItemCodec<>(Transaction.class);
+
+        // When
+        final byte[] payload = codec.encode(TRANSACTION);
+
+        // Then
+        assertThat(codec.decode(payload)).isEqualTo(TRANSACTION);
+        assertThat(payload.length).isLessThan(new SerializationStagingItemCodec<Transaction>().encode(TRANSACTION).length / 5);
+    }
+
+    @Test
+    void record_codec_should_handle_null_components() {
+        // Given
+        final StagingItemCodec<Transaction> codec = new RecordStagingItemCodec<>(Transaction.class);
+        final Transaction empty = new Transaction(null, null, null, null);
+
+        // When / Then
+        assertThat(codec.decode(codec.encode(empty))).isEqualTo(empty);
+    }
+
+    @Test
+    void record_codec_should_handle_all_supported_types() {
+        // Given
+        final StagingItemCodec<AllTypes> codec = new RecordStagingItemCodec<>(AllTypes.class);
+        final AllTypes item = new AllTypes(-1L, 7, 0.1, true, null, "héllo", new BigDecimal("-123.4500"), LocalDate.of(1900, 1, 1),
+                LocalDateTime.of(2020, 2, 29, 23, 59, 59, 999), Kind.CREDIT);
+
+        // When / Then
+        assertThat(codec.decode(codec.encode(item))).isEqualTo(item);
+    }
+
+    @Test
+    void record_codec_should_reject_unsupported_types() {
+        assertThatThrownBy(() -> new RecordStagingItemCodec<>(Unsupported.class)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported.value");
+    }
+
+    @Test
+    void deflate_codec_should_decode_what_it_encodes() {
+        // Given
+        final StagingItemCodec<Transaction> codec = new DeflateStagingItemCodec<>(new SerializationStagingItemCodec<>());
+
+        // When
+        final byte[] payload = codec.encode(TRANSACTION);
+
+        // Then
+        assertThat(codec.decode(payload)).isEqualTo(TRANSACTION);
+        assertThat(payload.length).isLessThan(new SerializationStagingItemCodec<Transaction>().encode(TRANSACTION).length);
+    }
+
+    @Test
+    void jackson_codec_should_decode_what_it_encodes() {
+        // Given
+        final StagingItemCodec<Label> codec = new JacksonStagingItemCodec<>(Label.class);
+        final Label label = new Label(1L, "héllo");
+
+        // When / Then
+        assertThat(codec.decode(codec.encode(label))).isEqualTo(label);
+    }
+
+}
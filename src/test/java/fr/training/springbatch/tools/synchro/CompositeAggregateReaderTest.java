@@ -81,6 +81,32 @@ class CompositeAggregateReaderTest {
         assertThat(item).isNull();
     }
 
+    @Test
+    void read_should_compare_keys_with_the_key_comparator_without_extracting_keys() throws Exception {
+        // Given : key objects are never built on the comparator path
+        compositeAggregateItemReader.close();
+        compositeAggregateItemReader = new CompositeAggregateReader<>();
+        compositeAggregateItemReader.setMasterItemReader(getFooItemReader());
+        compositeAggregateItemReader.setMasterKeyExtractor(foo -> {
+            throw new AssertionError("master key extracted");
+        });
+        compositeAggregateItemReader.setMasterAggregator(Foo::addBar);
+        compositeAggregateItemReader.setSlaveItemReader(getBarItemReader());
+        compositeAggregateItemReader.setSlaveKeyExtractor(bar -> {
+            throw new AssertionError("slave key extracted");
+        });
+        compositeAggregateItemReader.setKeyComparator(MasterSlaveComparator.comparingLong(Foo::getId, Bar::getFooId));
+        compositeAggregateItemReader.afterPropertiesSet();
+        compositeAggregateItemReader.open(new ExecutionContext());
+
+        // When / Then
+        assertReadedItem(compositeAggregateItemReader.read(), "foo1", bar1);
+        assertReadedItem(compositeAggregateItemReader.read(), "foo2", bar2, bar3);
+        assertReadedItem(compositeAggregateItemReader.read(), "foo3");
+        assertReadedItem(compositeAggregateItemReader.read(), "foo4", bar4, bar5);
+        assertThat(compositeAggregateItemReader.read()).isNull();
+    }
+
     @Test
     void testAfterPropertiesSet() {
         // Given
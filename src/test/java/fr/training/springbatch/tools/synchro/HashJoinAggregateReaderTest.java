@@ -0,0 +1,171 @@
+package fr.training.springbatch.tools.synchro;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.ByteArrayResource;
+
+class HashJoinAggregateReaderTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void read_should_join_unsorted_streams_in_memory() throws Exception {
+        // Given
+        final HashJoinAggregateReader<Master, String, Long> reader = reader();
+
+        // When
+        final List<Master> masters = readAll(reader, new ExecutionContext());
+
+        // Then : master order is kept
+        assertThat(masters).extracting(Master::key).containsExactly(3L, 1L, 4L, 2L);
+        assertThat(masters).extracting(Master::details)
+                .containsExactly(List.of("3;c1", "3;c2"), List.of("1;a1", "1;a2"), List.of(), List.of("2;b1"));
+    }
+
+    @Test
+    void read_should_partition_to_disk_when_memory_budget_is_exceeded() throws Exception {
+        // Given
+        final HashJoinAggregateReader<Master, String, Long> reader = reader();
+        reader.setMaxInMemorySlaveItems(2);
+        reader.setSpillPartitions(3);
+
+        // When
+        final List<Master> masters = readAll(reader, new ExecutionContext());
+
+        // Then : same aggregates, grouped by partition
+        assertThat(masters).extracting(Master::key).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(masters).filteredOn(master -> master.key() == 3L).extracting(Master::details).containsExactly(List.of("3;c1", "3;c2"));
+        assertThat(masters).filteredOn(master -> master.key() == 1L).extracting(Master::details).containsExactly(List.of("1;a1", "1;a2"));
+        // partition files are removed on close
+        assertThat(new File(tempDir.toString()).list()).isEmpty();
+    }
+
+    @Test
+    void read_should_partition_again_the_partitions_exceeding_the_memory_budget() throws Exception {
+        // Given : 200 keys of 3 slave items, a budget of 20 items and 2 partitions by split : partitioned down to 16 keys per partition
+        final List<String> masterLines = new ArrayList<>();
+        final List<String> slaveLines = new ArrayList<>();
+        for (int key = 0; key < 200; key++) {
+            masterLines.add(String.valueOf(key));
+            for (int rank = 0; rank < 3; rank++) {
+                slaveLines.add(key + ";" + rank);
+            }
+        }
+        final HashJoinAggregateReader<Master, String, Long> reader = reader(masterLines, slaveLines);
+        reader.setMaxInMemorySlaveItems(20);
+        reader.setSpillPartitions(2);
+
+        // When
+        final List<Master> masters = readAll(reader, new ExecutionContext());
+
+        // Then
+        assertThat(masters).hasSize(200).extracting(Master::key).doesNotHaveDuplicates();
+        assertThat(masters)
+                .allSatisfy(master -> assertThat(master.details()).containsExactly(master.key() + ";0", master.key() + ";1", master.key() + ";2"));
+        assertThat(new File(tempDir.toString()).list()).isEmpty();
+    }
+
+    @Test
+    void read_should_fail_when_a_single_key_exceeds_the_memory_budget() throws Exception {
+        // Given : 30 slave items of the same key, a budget of 20 items
+        final List<String> slaveLines = new ArrayList<>();
+        for (int rank = 0; rank < 30; rank++) {
+            slaveLines.add("7;" + rank);
+        }
+        slaveLines.add("8;0");
+        final HashJoinAggregateReader<Master, String, Long> reader = reader(List.of("7", "8"), slaveLines);
+        reader.setMaxInMemorySlaveItems(20);
+        reader.setSpillPartitions(2);
+        reader.open(new ExecutionContext());
+
+        // When / Then
+        assertThatThrownBy(() -> {
+            while (reader.read() != null) {
+                // the other keys are joined before
+            }
+        }).isInstanceOf(IllegalStateException.class).hasMessageContaining("30 slave items share the same key hash");
+        reader.close();
+        assertThat(new File(tempDir.toString()).list()).isEmpty();
+    }
+
+    @Test
+    void open_should_restart_after_last_returned_aggregate() throws Exception {
+        // Given
+        final HashJoinAggregateReader<Master, String, Long> reader = reader();
+        final ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        reader.read();
+        reader.read();
+        reader.update(executionContext);
+        reader.close();
+
+        // When
+        final List<Master> masters = readAll(reader, executionContext);
+
+        // Then
+        assertThat(masters).extracting(Master::key).containsExactly(4L, 2L);
+        assertThat(masters).extracting(Master::details).containsExactly(List.of(), List.of("2;b1"));
+    }
+
+    private HashJoinAggregateReader<Master, String, Long> reader() throws Exception {
+        return reader(List.of("3", "1", "4", "2"), List.of("1;a1", "3;c1", "2;b1", "5;x", "1;a2", "3;c2"));
+    }
+
+    private HashJoinAggregateReader<Master, String, Long> reader(final List<String> masterLines, final List<String> slaveLines) throws Exception {
+        final HashJoinAggregateReader<Master, String, Long> reader = new HashJoinAggregateReader<>();
+        reader.setMasterItemReader(reader("master", Master::new, masterLines));
+        reader.setMasterKeyExtractor(Master::key);
+        reader.setSlaveItemReader(reader("slave", line -> line, slaveLines));
+        reader.setSlaveKeyExtractor(Master::keyOf);
+        reader.setMasterAggregator((master, line) -> master.details().add(line));
+        reader.setTempDirectory(tempDir.toString());
+        reader.afterPropertiesSet();
+        return reader;
+    }
+
+    private static List<Master> readAll(final HashJoinAggregateReader<Master, String, Long> reader, final ExecutionContext executionContext)
+            throws Exception {
+        reader.open(executionContext);
+        final List<Master> masters = new ArrayList<>();
+        Master master;
+        while ((master = reader.read()) != null) {
+            masters.add(master);
+        }
+        reader.close();
+        return masters;
+    }
+
+    private static <T> FlatFileItemReader<T> reader(final String name, final Function<String, T> mapper, final List<String> lines) {
+        return new FlatFileItemReaderBuilder<T>()
+                .name(name)
+                .resource(new ByteArrayResource(String.join("\n", lines).getBytes()))
+                .lineMapper((line, lineNumber) -> mapper.apply(line))
+                .build();
+    }
+
+    private record Master(Long key, List<String> details) implements Serializable {
+
+        private Master(final String line) {
+            this(Long.valueOf(line), new ArrayList<>());
+        }
+
+        private static Long keyOf(final String line) {
+            return Long.valueOf(line.substring(0, line.indexOf(';')));
+        }
+    }
+
+}
@@ -2,6 +2,8 @@ package fr.training.springbatch.tools.synchro;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.batch.item.ExecutionContext;
@@ -79,6 +81,26 @@ class ItemAccumulatorTest {
         assertThat(item).isNull();
     }
 
+    @Test
+    void readNextGroup_should_fold_each_group_as_it_streams() throws Exception {
+        // Given
+        final BarAccumulator accumulator = new BarAccumulator(getBarItemReader());
+        accumulator.open(new ExecutionContext());
+
+        // When
+        final String group1 = accumulator.readNextGroup(Collectors.mapping(Bar::getName, Collectors.joining(",")));
+        final String group2 = accumulator.readNextGroup(Collectors.mapping(Bar::getName, Collectors.joining(",")));
+        final Long group4Size = accumulator.readNextGroup(Collectors.counting());
+        final Long end = accumulator.readNextGroup(Collectors.counting());
+        accumulator.close();
+
+        // Then
+        assertThat(group1).isEqualTo("bar1");
+        assertThat(group2).isEqualTo("bar2,bar3");
+        assertThat(group4Size).isEqualTo(2);
+        assertThat(end).isNull();
+    }
+
     private void assertReadedItem(final Foo item, final String expectedName, final Bar... bars) {
         assertThat(item.getName()).isEqualTo(expectedName);
         assertThat(item.getBars()).containsExactly(bars);
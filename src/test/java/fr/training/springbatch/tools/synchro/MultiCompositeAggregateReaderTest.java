@@ -0,0 +1,60 @@
+package fr.training.springbatch.tools.synchro;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.ByteArrayResource;
+
+class MultiCompositeAggregateReaderTest {
+
+    @Test
+    void read_should_aggregate_all_slaves_in_one_pass() throws Exception {
+        // Given
+        final MultiCompositeAggregateReader<Master, Long> reader = new MultiCompositeAggregateReader<>();
+        reader.setMasterItemReader(reader("master", Master::new, "1", "2", "3"));
+        reader.setMasterKeyExtractor(Master::key);
+        reader.addSlave(reader("payments", line -> line, "1;p1", "1;p2", "3;p3"), Master::keyOf, (master, line) -> master.details().add(line));
+        reader.addSlave(reader("contacts", line -> line, "0;c0", "2;c2", "2;c3", "4;c4"), Master::keyOf, (master, line) -> master.details().add(line));
+        reader.afterPropertiesSet();
+
+        // When
+        reader.open(new ExecutionContext());
+        final List<Master> masters = new ArrayList<>();
+        Master master;
+        while ((master = reader.read()) != null) {
+            masters.add(master);
+        }
+        reader.close();
+
+        // Then
+        assertThat(masters).extracting(Master::details)
+                .containsExactly(List.of("1;p1", "1;p2"), List.of("2;c2", "2;c3"), List.of("3;p3"));
+    }
+
+    private static <T> FlatFileItemReader<T> reader(final String name, final Function<String, T> mapper, final String... lines) {
+        return new FlatFileItemReaderBuilder<T>()
+                .name(name)
+                .resource(new ByteArrayResource(String.join("\n", lines).getBytes()))
+                .lineMapper((line, lineNumber) -> mapper.apply(line))
+                .build();
+    }
+
+    private record Master(Long key, List<String> details) {
+
+        private Master(final String line) {
+            this(Long.valueOf(line), new ArrayList<>());
+        }
+
+        private static Long keyOf(final String line) {
+            return Long.valueOf(line.substring(0, line.indexOf(';')));
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package fr.training.springbatch.tools.synchro;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.support.AbstractItemStreamItemReader;
+import org.springframework.core.io.ByteArrayResource;
+
+@Timeout(value = 10, unit = TimeUnit.SECONDS)
+class ReadAheadItemReaderTest {
+
+    private static final int LINE_COUNT = 200;
+
+    @Test
+    void read_should_return_all_delegate_items_in_order() throws Exception {
+        // Given
+        final ReadAheadItemReader<String> reader = new ReadAheadItemReader<>(lines(), 10);
+        reader.open(new ExecutionContext());
+
+        // When
+        final List<String> items = readAll(reader);
+        reader.close();
+
+        // Then
+        assertThat(items).hasSize(LINE_COUNT).startsWith("1", "2").endsWith(String.valueOf(LINE_COUNT));
+    }
+
+    @Test
+    void open_should_restart_after_last_consumed_item() throws Exception {
+        // read inside a batch, at the end of a batch, and after several batches
+        for (final int consumed : new int[] { 6, 64, 70, LINE_COUNT - 1 }) {
+            // Given
+            final ExecutionContext executionContext = new ExecutionContext();
+            final ReadAheadItemReader<String> reader = new ReadAheadItemReader<>(lines(), 100);
+            reader.open(executionContext);
+            for (int i = 0; i < consumed; i++) {
+                reader.read();
+            }
+            reader.update(executionContext);
+            reader.close();
+
+            // When
+            final ReadAheadItemReader<String> restarted = new ReadAheadItemReader<>(lines(), 100);
+            restarted.open(executionContext);
+            final List<String> items = readAll(restarted);
+            restarted.close();
+
+            // Then
+            assertThat(items).as("restart after %d items", consumed).hasSize(LINE_COUNT - consumed).startsWith(String.valueOf(consumed + 1));
+        }
+    }
+
+    @Test
+    void read_should_throw_the_delegate_exception_after_the_items_read_before() throws Exception {
+        // Given
+        final ReadAheadItemReader<String> reader = new ReadAheadItemReader<>(failingReader(new IllegalStateException("bad record")), 10);
+        reader.open(new ExecutionContext());
+
+        // When / Then
+        assertThat(reader.read()).isEqualTo("item1");
+        assertThat(reader.read()).isEqualTo("item2");
+        assertThatThrownBy(reader::read).isInstanceOf(IllegalStateException.class).hasMessage("bad record");
+        reader.close();
+    }
+
+    @Test
+    void read_should_throw_the_delegate_error_instead_of_blocking() throws Exception {
+        // Given
+        final ReadAheadItemReader<String> reader = new ReadAheadItemReader<>(failingReader(new StackOverflowError("deep record")), 10);
+        reader.open(new ExecutionContext());
+
+        // When / Then
+        reader.read();
+        reader.read();
+        assertThatThrownBy(reader::read).isInstanceOf(StackOverflowError.class).hasMessage("deep record");
+        reader.close();
+    }
+
+    private static FlatFileItemReader<String> lines() {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= LINE_COUNT; i++) {
+            content.append(i).append('\n');
+        }
+        return new FlatFileItemReaderBuilder<String>() //
+                .name("lines") //
+                .resource(new ByteArrayResource(content.toString().getBytes())) //
+                .lineMapper((line, lineNumber) -> line) //
+                .build();
+    }
+
+    /**
+     * @return a reader returning 2 items, then throwing the error.
+     */
+    private static ItemStreamReader<String> failingReader(final Throwable error) {
+        return new AbstractItemStreamItemReader<>() {
+
+            private int count;
+
+            @Override
+            public String read() throws Exception {
+                if (++count > 2) {
+                    if (error instanceof final Error e) {
+                        throw e;
+                    }
+                    throw (Exception) error;
+                }
+                return "item" + count;
+            }
+        };
+    }
+
+    private static List<String> readAll(final ReadAheadItemReader<String> reader) throws Exception {
+        final List<String> items = new ArrayList<>();
+        String item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        return items;
+    }
+
+}
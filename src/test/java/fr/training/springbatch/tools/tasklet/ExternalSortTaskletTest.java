@@ -0,0 +1,104 @@
+package fr.training.springbatch.tools.tasklet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+class ExternalSortTaskletTest {
+
+    private static File workDir = new File("target/externalsorttasklet/");
+
+    private static File inputFile = new File(workDir, "unsorted.csv");
+
+    private static File outputFile = new File(workDir, "sorted.csv");
+
+    private static File tempDir = new File(workDir, "tmp");
+
+    @BeforeEach
+    void setup() throws IOException {
+        if (workDir.exists()) {
+            FileUtils.deleteDirectory(workDir);
+        }
+        tempDir.mkdirs();
+        FileUtils.writeLines(inputFile, StandardCharsets.UTF_8.name(),
+                List.of("customer#;transaction#", "3;a", "1;b", "10;c", "2;d", "1;e", "3;f", "2;g", "1;h"));
+    }
+
+    @Test
+    void execute_with_small_runs_should_merge_sorted_runs() throws Exception {
+        // Given
+        final ExternalSortTasklet<Long> tasklet = tasklet(3);
+        final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        final StepContribution contribution = new StepContribution(stepExecution);
+
+        // When
+        final RepeatStatus status = tasklet.execute(contribution, new ChunkContext(new StepContext(stepExecution)));
+
+        // Then
+        assertThat(status).isEqualTo(RepeatStatus.FINISHED);
+        // numeric key order, header kept first and equal keys in input order
+        assertThat(FileUtils.readLines(outputFile, StandardCharsets.UTF_8))
+                .containsExactly("customer#;transaction#", "1;b", "1;e", "1;h", "2;d", "2;g", "3;a", "3;f", "10;c");
+        assertThat(contribution.getWriteCount()).isEqualTo(8);
+        // temporary runs are removed
+        assertThat(tempDir.list()).isEmpty();
+    }
+
+    @Test
+    void execute_with_more_runs_than_fan_in_should_merge_in_several_passes() throws Exception {
+        // Given : 8 runs of 1 line, merged 3 at a time
+        final ExternalSortTasklet<Long> tasklet = tasklet(1);
+        tasklet.setMaxMergeFanIn(3);
+        final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        final StepContribution contribution = new StepContribution(stepExecution);
+
+        // When
+        tasklet.execute(contribution, new ChunkContext(new StepContext(stepExecution)));
+
+        // Then : same stable order as a single merge
+        assertThat(FileUtils.readLines(outputFile, StandardCharsets.UTF_8))
+                .containsExactly("customer#;transaction#", "1;b", "1;e", "1;h", "2;d", "2;g", "3;a", "3;f", "10;c");
+        assertThat(contribution.getWriteCount()).isEqualTo(8);
+        // temporary and intermediate runs are removed
+        assertThat(tempDir.list()).isEmpty();
+    }
+
+    @Test
+    void execute_with_file_smaller_than_run_should_sort_in_memory() throws Exception {
+        // Given
+        final ExternalSortTasklet<Long> tasklet = tasklet(100);
+        final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+
+        // When
+        tasklet.execute(new StepContribution(stepExecution), new ChunkContext(new StepContext(stepExecution)));
+
+        // Then
+        assertThat(FileUtils.readLines(outputFile, StandardCharsets.UTF_8))
+                .containsExactly("customer#;transaction#", "1;b", "1;e", "1;h", "2;d", "2;g", "3;a", "3;f", "10;c");
+    }
+
+    private static ExternalSortTasklet<Long> tasklet(final int runSize) {
+        final ExternalSortTasklet<Long> tasklet = new ExternalSortTasklet<>();
+        tasklet.setInputFile(inputFile.getPath());
+        tasklet.setOutputFile(outputFile.getPath());
+        tasklet.setKeyExtractor(line -> Long.valueOf(line.substring(0, line.indexOf(';'))));
+        tasklet.setLinesToSkip(1);
+        tasklet.setRunSize(runSize);
+        tasklet.setTempDirectory(tempDir.getPath());
+        return tasklet;
+    }
+
+}
@@ -0,0 +1,76 @@
+package fr.training.springbatch.tools.tasklet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+class MergeFilesTaskletTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void execute_should_keep_a_single_header_and_footer() throws Exception {
+        // Given
+        final Path first = Files.writeString(tempDir.resolve("first.csv"), "header\n1\n2\nfooter\n");
+        final Path second = Files.writeString(tempDir.resolve("second.csv"), "header\n3\nfooter"); // no final line feed
+        final Path third = Files.writeString(tempDir.resolve("third.csv"), "header\n4\n5\nfooter\n");
+        final Path output = tempDir.resolve("merged.csv");
+
+        final MergeFilesTasklet tasklet = new MergeFilesTasklet();
+        tasklet.setInputFiles(List.of(first.toString(), second.toString(), third.toString()));
+        tasklet.setOutputFile(output.toString());
+        tasklet.setHeaderLines(1);
+        tasklet.setFooterLines(1);
+
+        final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        final StepContribution contribution = new StepContribution(stepExecution);
+
+        // When
+        final RepeatStatus status = tasklet.execute(contribution, new ChunkContext(new StepContext(stepExecution)));
+
+        // Then
+        assertThat(status).isEqualTo(RepeatStatus.FINISHED);
+        assertThat(contribution.getReadCount()).isEqualTo(3);
+        assertThat(Files.readAllLines(output)).containsExactly("header", "1", "2", "3", "4", "5", "footer");
+    }
+
+    @Test
+    void execute_should_merge_the_partition_files_in_partition_order() throws Exception {
+        // Given
+        final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        final JobExecution jobExecution = stepExecution.getJobExecution();
+        for (int i = 0; i < 12; i++) {
+            final Path file = Files.writeString(tempDir.resolve("part" + i + ".csv"), i + "\n");
+            final StepExecution partition = jobExecution.createStepExecution("slave-step:partition" + i);
+            partition.setId((long) i + 10);
+            partition.getExecutionContext().putString("outputFile", "file:" + file);
+        }
+        final Path output = tempDir.resolve("merged.csv");
+
+        final MergeFilesTasklet tasklet = new MergeFilesTasklet();
+        tasklet.setStepName("slave-step");
+        tasklet.setOutputFile(output.toString());
+        tasklet.setDeleteInputs(true);
+
+        // When
+        tasklet.execute(new StepContribution(stepExecution), new ChunkContext(new StepContext(stepExecution)));
+
+        // Then
+        assertThat(Files.readAllLines(output)).containsExactly("0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11");
+        assertThat(tempDir.resolve("part0.csv")).doesNotExist();
+    }
+
+}